@@ -0,0 +1,23 @@
+package josepjiahla;
+
+import java.awt.geom.Point2D;
+
+// Intercepció circular iterativa: velocitat i gir per torn constants des de l'últim escaneig.
+// El gir és la mitjana dels últims torns perquè un sol escaneig sorollós no desviï tot el camí.
+final class CircularPredictor implements TargetPredictor {
+    static final int TURN_RATE_WINDOW = 3;
+
+    private final TargetingEngine engine;
+
+    CircularPredictor(TargetingEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public boolean predict(EnemyTable enemies, int slot, double shooterX, double shooterY, double bulletSpeed,
+                           long now, Point2D.Double aimPoint) {
+        return engine.intercept(slot, -1, enemies.x[slot], enemies.y[slot], enemies.headingRadians[slot],
+                enemies.velocity[slot], engine.history().averageTurnRate(slot, TURN_RATE_WINDOW), now - enemies.time[slot],
+                shooterX, shooterY, bulletSpeed, aimPoint);
+    }
+}
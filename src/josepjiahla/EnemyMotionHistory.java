@@ -0,0 +1,75 @@
+package josepjiahla;
+
+// Historial acotat de (velocitat, gir per torn) de cada slot d'enemic: un anell contigu per slot.
+final class EnemyMotionHistory {
+    static final int LENGTH = 512; // potència de dos
+    private static final int MASK = LENGTH - 1;
+    // Forats més llargs trenquen la continuïtat que necessita el pattern matching
+    private static final long MAX_GAP = 10;
+
+    private final float[] velocity = new float[EnemyTable.CAPACITY * LENGTH];
+    private final float[] turnRate = new float[EnemyTable.CAPACITY * LENGTH];
+    private final int[] count = new int[EnemyTable.CAPACITY];
+    private final long[] lastTime = new long[EnemyTable.CAPACITY];
+    private final double[] lastHeading = new double[EnemyTable.CAPACITY];
+
+    void record(int slot, double headingRadians, double velocity, long time) {
+        long gap = time - lastTime[slot];
+        if (count[slot] > 0 && gap <= 0) return;
+
+        if (count[slot] == 0 || gap > MAX_GAP) {
+            count[slot] = 0;
+            append(slot, velocity, 0);
+        } else {
+            double turn = FastMath.normalRelativeAngle(headingRadians - lastHeading[slot]) / gap;
+            for (long i = 0; i < gap; i++) {
+                append(slot, velocity, turn);
+            }
+        }
+        lastTime[slot] = time;
+        lastHeading[slot] = headingRadians;
+    }
+
+    void reset(int slot) {
+        count[slot] = 0;
+    }
+
+    int size(int slot) {
+        return Math.min(count[slot], LENGTH);
+    }
+
+    // ago = 0 és l'entrada més recent
+    int index(int slot, int ago) {
+        return slot * LENGTH + ((count[slot] - 1 - ago) & MASK);
+    }
+
+    float velocity(int index) {
+        return velocity[index];
+    }
+
+    float turnRate(int index) {
+        return turnRate[index];
+    }
+
+    double lastTurnRate(int slot) {
+        return count[slot] == 0 ? 0 : turnRate[index(slot, 0)];
+    }
+
+    // Gir mitjà per torn de les últimes window entrades (n'hi ha una per torn, també als forats omplerts)
+    double averageTurnRate(int slot, int window) {
+        int n = Math.min(window, size(slot));
+        if (n <= 0) return 0;
+        double sum = 0;
+        for (int ago = 0; ago < n; ago++) {
+            sum += turnRate[index(slot, ago)];
+        }
+        return sum / n;
+    }
+
+    private void append(int slot, double v, double turn) {
+        int i = slot * LENGTH + (count[slot] & MASK);
+        velocity[i] = (float) v;
+        turnRate[i] = (float) turn;
+        count[slot]++;
+    }
+}
@@ -0,0 +1,75 @@
+package josepjiahla;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+// Tot el que hem après d'un tipus d'oponent i fem servir: les estadístiques de tir de VirtualGuns.
+// Es desa entre batalles en un format binari versionat.
+final class EnemyProfile {
+    // Capçalera: canviar VERSION invalida els fitxers antics, que simplement s'ignoren
+    static final int MAGIC = 0x46544C50; // "FTLP"
+    static final byte VERSION = 2;
+
+    final GunStats gun = new GunStats();
+    boolean dirty;
+    // Per a EnemyProfiles: el tros d'aquest robot tal com és al disc i els totals de l'última lectura o escriptura
+    EnemyProfile own, synced;
+
+    // Suma (sign 1) o resta (sign -1) els comptadors d'un altre perfil
+    void add(EnemyProfile other, int sign) {
+        gun.waves += sign * other.gun.waves;
+        gun.shotsFired += sign * other.gun.shotsFired;
+        gun.shotsHit += sign * other.gun.shotsHit;
+        addCounts(gun.guessFactors, other.gun.guessFactors, sign);
+        addCounts(gun.modelHits, other.gun.modelHits, sign);
+    }
+
+    void copyFrom(EnemyProfile other) {
+        gun.waves = other.gun.waves;
+        gun.shotsFired = other.gun.shotsFired;
+        gun.shotsHit = other.gun.shotsHit;
+        System.arraycopy(other.gun.guessFactors, 0, gun.guessFactors, 0, gun.guessFactors.length);
+        System.arraycopy(other.gun.modelHits, 0, gun.modelHits, 0, gun.modelHits.length);
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(gun.waves);
+        out.writeInt(gun.shotsFired);
+        out.writeInt(gun.shotsHit);
+        writeCounts(out, gun.guessFactors);
+        writeCounts(out, gun.modelHits);
+    }
+
+    // false si el fitxer no és d'aquesta versió; el perfil queda buit
+    boolean read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readByte() != VERSION) return false;
+        gun.waves = in.readInt();
+        gun.shotsFired = in.readInt();
+        gun.shotsHit = in.readInt();
+        return readCounts(in, gun.guessFactors) && readCounts(in, gun.modelHits);
+    }
+
+    private static void addCounts(int[] counts, int[] other, int sign) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += sign * other[i];
+        }
+    }
+
+    private static void writeCounts(DataOutputStream out, int[] counts) throws IOException {
+        out.writeByte(counts.length);
+        for (int count : counts) {
+            out.writeInt(count);
+        }
+    }
+
+    private static boolean readCounts(DataInputStream in, int[] counts) throws IOException {
+        if (in.readUnsignedByte() != counts.length) return false;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = in.readInt();
+        }
+        return true;
+    }
+}
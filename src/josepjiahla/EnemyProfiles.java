@@ -0,0 +1,128 @@
+package josepjiahla;
+
+import robocode.AdvancedRobot;
+import robocode.RobocodeFileOutputStream;
+
+import java.io.*;
+import java.util.*;
+
+// Perfils per tipus d'oponent ("sample.SpinBot (2)" i "sample.SpinBot (3)" comparteixen perfil).
+// Un perfil es llegeix del directori de dades la primera vegada que se'n demana, i els modificats
+// es tornen a desar en acabar la ronda. Sense robot (benchmarks) només viuen en memòria.
+// Tots els companys comparteixen el directori: cada robot desa només el seu tros (<tipus>-<id>.prof,
+// amb el seu id de roster) i en llegir se sumen els trossos de tot l'equip.
+final class EnemyProfiles {
+    private static final String SUFFIX = ".prof";
+    private static final int PROFILE_BYTES = 512; // cota superior d'un fitxer, per respectar la quota
+
+    private final AdvancedRobot robot;
+    private final Map<String, EnemyProfile> profiles;
+    private final EnemyProfile[] bySlot = new EnemyProfile[EnemyTable.CAPACITY];
+    private int slice = 0;
+    private int slices = 1;
+
+    EnemyProfiles(AdvancedRobot robot, Map<String, EnemyProfile> profiles) {
+        this.robot = robot;
+        this.profiles = profiles;
+    }
+
+    EnemyProfile get(String enemyName) {
+        String type = type(enemyName);
+        EnemyProfile profile = profiles.get(type);
+        if (profile == null) {
+            profile = load(type);
+            profiles.put(type, profile);
+        }
+        return profile;
+    }
+
+    // Id de roster d'aquest robot i mida de l'equip; cal abans del primer get()
+    void setTeam(int rosterId, int teamSize) {
+        slice = Math.max(rosterId, 0);
+        slices = Math.max(teamSize, slice + 1);
+    }
+
+    // Perfil de l'enemic que ocupa un slot d'EnemyTable: el nom només es resol el primer cop
+    EnemyProfile get(int slot, String enemyName) {
+        EnemyProfile profile = bySlot[slot];
+        if (profile == null) {
+            profile = get(enemyName);
+            bySlot[slot] = profile;
+        }
+        return profile;
+    }
+
+    // L'enemic ha deixat el slot (mort o caducat): el següent que l'ocupi resoldrà el seu perfil
+    void forget(int slot) {
+        bySlot[slot] = null;
+    }
+
+    Set<Map.Entry<String, EnemyProfile>> entries() {
+        return profiles.entrySet();
+    }
+
+    void save() {
+        if (robot == null) return;
+        for (Map.Entry<String, EnemyProfile> entry : profiles.entrySet()) {
+            EnemyProfile profile = entry.getValue();
+            if (!profile.dirty) continue;
+            if (robot.getDataQuotaAvailable() < PROFILE_BYTES) return;
+
+            // El tros propi s'emporta el que s'ha après des de l'última lectura o escriptura
+            profile.own.add(profile, 1);
+            profile.own.add(profile.synced, -1);
+            profile.synced.copyFrom(profile);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new RobocodeFileOutputStream(robot.getDataFile(fileName(entry.getKey(), slice)))))) {
+                profile.own.write(out);
+                profile.dirty = false;
+            } catch (IOException e) {
+                System.err.println("Failed to save enemy profile " + entry.getKey());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private EnemyProfile load(String type) {
+        EnemyProfile profile = new EnemyProfile();
+        if (robot == null) return profile;
+
+        for (int i = 0; i < slices; i++) {
+            EnemyProfile part = loadSlice(type, i);
+            profile.add(part, 1);
+            if (i == slice) profile.own = part;
+        }
+        profile.synced = new EnemyProfile();
+        profile.synced.copyFrom(profile);
+        return profile;
+    }
+
+    private EnemyProfile loadSlice(String type, int slice) {
+        EnemyProfile part = new EnemyProfile();
+        File file = robot.getDataFile(fileName(type, slice));
+        if (file.length() == 0) return part;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (part.read(in)) return part;
+        } catch (IOException e) {
+            System.err.println("Failed to load enemy profile " + type + "-" + slice);
+            e.printStackTrace();
+        }
+        // Fitxer d'una altra versió o malmès: aquest tros es torna a aprendre des de zero
+        return new EnemyProfile();
+    }
+
+    // Treu el número que Robocode afegeix a les còpies d'un mateix robot
+    static String type(String enemyName) {
+        int copy = enemyName.lastIndexOf(" (");
+        return copy > 0 && enemyName.endsWith(")") ? enemyName.substring(0, copy) : enemyName;
+    }
+
+    private static String fileName(String type, int slice) {
+        StringBuilder name = new StringBuilder(type.length() + SUFFIX.length() + 4);
+        for (int i = 0; i < type.length(); i++) {
+            char c = type.charAt(i);
+            name.append(Character.isLetterOrDigit(c) || c == '.' ? c : '_');
+        }
+        return name.append('-').append(slice).append(SUFFIX).toString();
+    }
+}
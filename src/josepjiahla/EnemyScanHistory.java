@@ -0,0 +1,97 @@
+package josepjiahla;
+
+import robocode.Rules;
+
+// Últims escanejos de cada slot d'enemic (posició, velocitat, energia i torn) en anells de mida fixa.
+// A diferència d'EnemyMotionHistory, que omple els forats torn a torn i en guarda el rumb per apuntar,
+// aquí cada entrada és una observació real: serveix per detectar trets i saber des d'on s'han disparat.
+// Una caiguda d'energia només és un tret després de descomptar el que ja s'explica d'una altra manera:
+// els nostres impactes i xocs, el que recupera quan encerta i un probable xoc contra la paret.
+final class EnemyScanHistory {
+    static final int LENGTH = 64; // potència de dos
+    private static final int MASK = LENGTH - 1;
+    private static final double MIN_BULLET_POWER = 0.1;
+    private static final double MAX_BULLET_POWER = 3.0;
+    private static final double WALL_CONTACT = 18 + 1; // centre d'un robot aturat contra la paret
+
+    private final float[] x = new float[EnemyTable.CAPACITY * LENGTH];
+    private final float[] y = new float[EnemyTable.CAPACITY * LENGTH];
+    private final float[] velocity = new float[EnemyTable.CAPACITY * LENGTH];
+    private final float[] energy = new float[EnemyTable.CAPACITY * LENGTH];
+    private final long[] time = new long[EnemyTable.CAPACITY * LENGTH];
+    private final int[] count = new int[EnemyTable.CAPACITY];
+    private final double[] pendingChange = new double[EnemyTable.CAPACITY]; // des de l'últim escaneig
+    private final double[] knownChange = new double[EnemyTable.CAPACITY]; // entre els dos últims escanejos
+    private double fieldWidth, fieldHeight;
+
+    void setBounds(double width, double height) {
+        fieldWidth = width;
+        fieldHeight = height;
+    }
+
+    // Canvi d'energia de l'enemic que no és un tret seu: negatiu si l'hem tocat o hi hem xocat, positiu
+    // si ens ha encertat. Els esdeveniments arriben abans que l'escaneig del mateix torn, que el consumeix.
+    void energyChange(int slot, double delta) {
+        pendingChange[slot] += delta;
+    }
+
+    // Només afegeix si és un torn posterior a l'últim: les còpies rebudes d'un mateix escaneig s'ignoren
+    boolean record(EnemyTable enemies, int slot) {
+        if (count[slot] > 0 && enemies.time[slot] <= time[index(slot, 0)]) return false;
+
+        int i = slot * LENGTH + (count[slot] & MASK);
+        x[i] = (float) enemies.x[slot];
+        y[i] = (float) enemies.y[slot];
+        velocity[i] = (float) enemies.velocity[slot];
+        energy[i] = (float) enemies.energy[slot];
+        time[i] = enemies.time[slot];
+        count[slot]++;
+        knownChange[slot] = pendingChange[slot];
+        pendingChange[slot] = 0;
+        return true;
+    }
+
+    void reset(int slot) {
+        count[slot] = 0;
+        pendingChange[slot] = 0;
+        knownChange[slot] = 0;
+    }
+
+    int size(int slot) {
+        return Math.min(count[slot], LENGTH);
+    }
+
+    // ago = 0 és l'escaneig més recent
+    int index(int slot, int ago) {
+        return slot * LENGTH + ((count[slot] - 1 - ago) & MASK);
+    }
+
+    float x(int index) {
+        return x[index];
+    }
+
+    float y(int index) {
+        return y[index];
+    }
+
+    long time(int index) {
+        return time[index];
+    }
+
+    // Potència de la bala si entre els dos últims escanejos l'energia ha baixat com en un tret; 0 si no
+    double energyDrop(int slot) {
+        if (size(slot) < 2) return 0;
+        int latest = index(slot, 0);
+        int previous = index(slot, 1);
+        double drop = energy[previous] - energy[latest] + knownChange[slot] - wallDamage(latest, previous);
+        return drop >= MIN_BULLET_POWER - 1e-4 && drop <= MAX_BULLET_POWER + 1e-4 ? drop : 0;
+    }
+
+    // S'ha aturat de cop tocant una paret: el dany que li fa el motor amb la velocitat que portava
+    private double wallDamage(int latest, int previous) {
+        if (velocity[latest] != 0 || velocity[previous] == 0 || fieldWidth == 0) return 0;
+        boolean touching = x[latest] <= WALL_CONTACT || x[latest] >= fieldWidth - WALL_CONTACT
+                || y[latest] <= WALL_CONTACT || y[latest] >= fieldHeight - WALL_CONTACT;
+        return touching ? Rules.getWallHitDamage(velocity[previous]) : 0;
+    }
+}
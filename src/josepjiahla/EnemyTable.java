@@ -0,0 +1,98 @@
+package josepjiahla;
+
+import java.util.*;
+
+// Taula d'enemics de capacitat fixa en columnes primitives: cada nom rep un slot una sola vegada
+// i els escanejos (propis o rebuts) sobreescriuen aquell slot sense crear objectes.
+// Cada entrada porta la versió (torn, font): només una versió més nova la pot substituir.
+// Una entrada que ningú de l'equip ha vist en TTL torns es considera caducada i perd tota la confiança.
+final class EnemyTable {
+    static final int CAPACITY = 64;
+    static final long TTL = 150;
+
+    final double[] x = new double[CAPACITY];
+    final double[] y = new double[CAPACITY];
+    final double[] headingRadians = new double[CAPACITY];
+    final double[] velocity = new double[CAPACITY];
+    final double[] energy = new double[CAPACITY];
+    final double[] bearing = new double[CAPACITY];
+    final double[] distance = new double[CAPACITY];
+    final long[] time = new long[CAPACITY];
+    final int[] source = new int[CAPACITY]; // id de roster de qui l'ha vist
+    final long[] teamTime = new long[CAPACITY]; // versió més nova que ja coneix tot l'equip
+
+    private final String[] names = new String[CAPACITY];
+    private final Map<String, Integer> slots = new HashMap<>();
+    private int highWater = 0;
+
+    // -1 si l'enemic no té slot
+    int slotOf(String name) {
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    // Retorna -1 si la taula és plena
+    int acquire(String name) {
+        Integer existing = slots.get(name);
+        if (existing != null) return existing;
+
+        for (int slot = 0; slot < CAPACITY; slot++) {
+            if (names[slot] == null) {
+                names[slot] = name;
+                slots.put(name, slot);
+                time[slot] = Long.MIN_VALUE;
+                teamTime[slot] = Long.MIN_VALUE;
+                highWater = Math.max(highWater, slot + 1);
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // Desempat determinista amb l'id de la font perquè tots els robots triïn la mateixa entrada
+    boolean isNewer(int slot, long time, int source) {
+        return time > this.time[slot] || (time == this.time[slot] && source < this.source[slot]);
+    }
+
+    boolean isStale(int slot, long now) {
+        return time[slot] <= now - TTL;
+    }
+
+    // 1 acabat de veure, 0 en caducar: per rebaixar decisions preses amb posicions velles
+    double confidence(int slot, long now) {
+        return isStale(slot, now) ? 0 : 1 - (double) (now - time[slot]) / TTL;
+    }
+
+    void update(int slot, double bearing, double distance, double headingRadians, double velocity,
+                double x, double y, long time, double energy, int source) {
+        this.bearing[slot] = bearing;
+        this.distance[slot] = distance;
+        this.headingRadians[slot] = headingRadians;
+        this.velocity[slot] = velocity;
+        this.x[slot] = x;
+        this.y[slot] = y;
+        this.time[slot] = time;
+        this.energy[slot] = energy;
+        this.source[slot] = source;
+    }
+
+    int remove(String name) {
+        Integer slot = slots.remove(name);
+        if (slot == null) return -1;
+        names[slot] = null;
+        return slot;
+    }
+
+    boolean isActive(int slot) {
+        return names[slot] != null;
+    }
+
+    String name(int slot) {
+        return names[slot];
+    }
+
+    // Els slots actius són sempre per sota d'aquest límit
+    int highWater() {
+        return highWater;
+    }
+}
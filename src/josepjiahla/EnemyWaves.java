@@ -0,0 +1,125 @@
+package josepjiahla;
+
+import robocode.Rules;
+
+// Onades de bales enemigues detectades per caigudes d'energia (pròpies o compartides per l'equip).
+// Cada robot les referencia a la seva pròpia posició quan les coneix: el guess factor d'un punt és
+// on queda respecte la línia origen-robot, i el perill per cubeta s'aprèn de les bales que ens toquen.
+// Pool preassignat en columnes: afegir, avançar i consultar no creen objectes.
+final class EnemyWaves {
+    static final int POOL_SIZE = 128;
+    private static final int BINS = 31;
+    private static final int MIDDLE_BIN = BINS / 2;
+    private static final long SURF_HORIZON = 30; // torns d'antelació amb què una onada compta al risc
+    private static final double HIT_MARGIN = 50;
+
+    private final boolean[] active = new boolean[POOL_SIZE];
+    private final String[] enemy = new String[POOL_SIZE];
+    private final double[] originX = new double[POOL_SIZE];
+    private final double[] originY = new double[POOL_SIZE];
+    private final long[] fireTime = new long[POOL_SIZE];
+    private final double[] speed = new double[POOL_SIZE];
+    private final double[] bearing = new double[POOL_SIZE];
+    private final double[] escapeAngle = new double[POOL_SIZE];
+    private final int[] direction = new int[POOL_SIZE];
+
+    // Sense dades, el més perillós és quedar-se a la línia de tir (head-on) i el que hi ha just al costat
+    private final double[] danger = new double[BINS];
+    private double ownX, ownY, ownHeading, ownVelocity;
+    private long now;
+
+    EnemyWaves() {
+        for (int bin = 0; bin < BINS; bin++) {
+            danger[bin] = 1.0 / (1 + Math.abs(bin - MIDDLE_BIN));
+        }
+    }
+
+    // Un cop per torn, abans de consultar el risc: posició pròpia per referenciar les onades noves
+    void advance(long now, double x, double y, double headingRadians, double velocity) {
+        this.now = now;
+        ownX = x;
+        ownY = y;
+        ownHeading = headingRadians;
+        ownVelocity = velocity;
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (active[i] && radius(i) > Math.hypot(x - originX[i], y - originY[i]) + HIT_MARGIN) {
+                active[i] = false;
+            }
+        }
+    }
+
+    // false si ja la teníem (la mateixa caiguda detectada per diversos companys) o si el pool és ple
+    boolean add(String name, double x, double y, long time, double power) {
+        int free = -1;
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (!active[i]) {
+                if (free < 0) free = i;
+            } else if (fireTime[i] == time && enemy[i].equals(name)) {
+                return false;
+            }
+        }
+        if (free < 0) return false;
+
+        active[free] = true;
+        enemy[free] = name;
+        originX[free] = x;
+        originY[free] = y;
+        fireTime[free] = time;
+        speed[free] = Rules.getBulletSpeed(power);
+        bearing[free] = FastMath.atan2(ownX - x, ownY - y);
+        escapeAngle[free] = Math.asin(Rules.MAX_VELOCITY / speed[free]);
+        double lateralVelocity = ownVelocity * FastMath.sin(ownHeading - bearing[free]);
+        direction[free] = lateralVelocity < 0 ? -1 : 1;
+        return true;
+    }
+
+    // Cert si alguna onada ens arribarà abans de SURF_HORIZON torns
+    boolean threatens(double x, double y) {
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (active[i] && ticksUntilHit(i, x, y) < SURF_HORIZON) return true;
+        }
+        return false;
+    }
+
+    // Perill d'estar a (x, y): les onades més properes pesen més
+    double danger(double x, double y) {
+        double total = 0;
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (!active[i]) continue;
+            double ticks = ticksUntilHit(i, x, y);
+            if (ticks < 0 || ticks > SURF_HORIZON) continue;
+            total += danger[bin(i, x, y)] / Math.max(1, ticks);
+        }
+        return total;
+    }
+
+    // Ens ha tocat una bala: la cubeta on érem passa a ser més perillosa i l'onada ja no compta
+    void hitByBullet(String name, double power, double x, double y) {
+        double bulletSpeed = Rules.getBulletSpeed(power);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (!active[i] || !enemy[i].equals(name) || Math.abs(speed[i] - bulletSpeed) > 0.01) continue;
+            if (Math.abs(radius(i) - Math.hypot(x - originX[i], y - originY[i])) > 2 * speed[i]) continue;
+
+            int hit = bin(i, x, y);
+            for (int bin = 0; bin < BINS; bin++) {
+                danger[bin] += 1.0 / (1 + (bin - hit) * (bin - hit));
+            }
+            active[i] = false;
+            return;
+        }
+    }
+
+    private double radius(int i) {
+        return (now - fireTime[i]) * speed[i];
+    }
+
+    private double ticksUntilHit(int i, double x, double y) {
+        return (Math.hypot(x - originX[i], y - originY[i]) - radius(i)) / speed[i];
+    }
+
+    private int bin(int i, double x, double y) {
+        double offset = FastMath.normalRelativeAngle(FastMath.atan2(x - originX[i], y - originY[i]) - bearing[i]);
+        double guessFactor = Math.max(-1, Math.min(1, direction[i] * offset / escapeAngle[i]));
+        return (int) Math.round(guessFactor * MIDDLE_BIN) + MIDDLE_BIN;
+    }
+}
@@ -0,0 +1,234 @@
+package josepjiahla;
+
+import robocode.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// Enregistra els esdeveniments que rep el robot en una ronda (escanejos, missatges, morts, impactes)
+// i el seu estat a cada torn, en un log binari comprimit que ReplayHarness (tools/) torna a injectar
+// al robot sense el motor. Desactivat per defecte: record.rounds a FollowTheLeader.properties.
+//
+// Format: capçalera (MAGIC, VERSION, nom, ronda, camp, companys) i registres etiquetats. TICK porta
+// l'estat del torn i precedeix els esdeveniments que el robot ha rebut en aquell torn. Els noms
+// s'escriuen com un índex d'una taula que creix amb el log: un índex nou va seguit del nom.
+final class EventRecorder {
+    static final int MAGIC = 0x46544C52; // "FTLR"
+    static final byte VERSION = 1;
+
+    static final byte TICK = 0;
+    static final byte RANDOM = 1;
+    static final byte SCAN = 2;
+    static final byte MESSAGE = 3;
+    static final byte ROBOT_DEATH = 4;
+    static final byte HIT_ROBOT = 5;
+    static final byte BULLET_HIT = 6;
+    static final byte HIT_BY_BULLET = 7;
+    static final byte SKIPPED_TURN = 8;
+    static final byte END = 9;
+
+    private static final long QUOTA_RESERVE = 8192; // per als perfils d'enemic i els profile-<id>.txt
+
+    private final Map<String, Integer> names = new HashMap<>();
+    private Deflater deflater;
+    private AdvancedRobot robot;
+    private DataOutputStream out;
+    private long budget;
+    private long lastTick = -1;
+
+    static String fileName(String robotName, int round) {
+        StringBuilder name = new StringBuilder("replay-");
+        for (int i = 0; i < robotName.length(); i++) {
+            if (Character.isDigit(robotName.charAt(i))) name.append(robotName.charAt(i));
+        }
+        return name.append("-r").append(round).append(".bin").toString();
+    }
+
+    // Comença a enregistrar si aquesta ronda toca i hi ha quota; si no, totes les crides són no-ops
+    void open(AdvancedRobot robot) {
+        if (robot.getRoundNum() >= TeamParameters.RECORD_ROUNDS) return;
+        String[] teammates = robot instanceof TeamRobot ? ((TeamRobot) robot).getTeammates() : null;
+        // La quota és de tot l'equip: cada company enregistra el seu log amb la seva part
+        int teamSize = teammates == null ? 1 : teammates.length + 1;
+        budget = Math.min(TeamParameters.RECORD_BYTES, (robot.getDataQuotaAvailable() - QUOTA_RESERVE) / teamSize);
+        if (budget <= 0) return;
+
+        this.robot = robot;
+        deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(
+                    new RobocodeFileOutputStream(robot.getDataFile(fileName(robot.getName(), robot.getRoundNum()))),
+                    deflater)));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(robot.getName());
+            out.writeInt(robot.getRoundNum());
+            out.writeShort((int) robot.getBattleFieldWidth());
+            out.writeShort((int) robot.getBattleFieldHeight());
+            out.writeByte(teammates == null ? 0 : teammates.length);
+            for (int i = 0; teammates != null && i < teammates.length; i++) {
+                out.writeUTF(teammates[i]);
+            }
+            tick();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    void random(int value) {
+        if (!begin(RANDOM)) return;
+        try {
+            out.writeInt(value);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    void scan(ScannedRobotEvent event) {
+        if (!begin(SCAN)) return;
+        try {
+            writeName(event.getName());
+            out.writeFloat((float) event.getBearingRadians());
+            out.writeFloat((float) event.getDistance());
+            out.writeFloat((float) event.getHeadingRadians());
+            out.writeFloat((float) event.getVelocity());
+            out.writeFloat((float) event.getEnergy());
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    void message(MessageEvent event) {
+        if (!(event.getMessage() instanceof byte[]) || !begin(MESSAGE)) return;
+        byte[] payload = (byte[]) event.getMessage();
+        try {
+            writeName(event.getSender());
+            out.writeShort(payload.length);
+            out.write(payload);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    void robotDeath(RobotDeathEvent event) {
+        if (!begin(ROBOT_DEATH)) return;
+        try {
+            writeName(event.getName());
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    void hitRobot(HitRobotEvent event) {
+        if (!begin(HIT_ROBOT)) return;
+        try {
+            writeName(event.getName());
+            out.writeFloat((float) event.getBearingRadians());
+            out.writeFloat((float) event.getEnergy());
+            out.writeBoolean(event.isMyFault());
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    void bulletHit(BulletHitEvent event) {
+        if (!begin(BULLET_HIT)) return;
+        try {
+            writeName(event.getName());
+            out.writeFloat((float) event.getEnergy());
+            out.writeFloat((float) event.getBullet().getPower());
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    void hitByBullet(HitByBulletEvent event) {
+        if (!begin(HIT_BY_BULLET)) return;
+        try {
+            writeName(event.getName());
+            out.writeFloat((float) event.getBearingRadians());
+            out.writeFloat((float) event.getPower());
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    void skippedTurn() {
+        begin(SKIPPED_TURN);
+    }
+
+    // Cada crida de dalt passa per aquí: l'estat del torn s'escriu un cop, abans del primer esdeveniment
+    void tick() {
+        if (out == null || robot.getTime() == lastTick) return;
+        if (deflater.getBytesWritten() >= budget) {
+            close();
+            return;
+        }
+        lastTick = robot.getTime();
+        try {
+            out.writeByte(TICK);
+            out.writeInt((int) lastTick);
+            out.writeFloat((float) robot.getX());
+            out.writeFloat((float) robot.getY());
+            out.writeFloat((float) robot.getHeadingRadians());
+            out.writeFloat((float) robot.getGunHeadingRadians());
+            out.writeFloat((float) robot.getRadarHeadingRadians());
+            out.writeFloat((float) robot.getVelocity());
+            out.writeFloat((float) robot.getEnergy());
+            out.writeFloat((float) robot.getDistanceRemaining());
+            out.writeFloat((float) robot.getGunHeat());
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    // Final de ronda, mort, error o pressupost esgotat: un log tallat continua sent vàlid fins a END
+    void close() {
+        if (out != null) {
+            try {
+                out.writeByte(END);
+                out.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close event log");
+                e.printStackTrace();
+            }
+            out = null;
+        }
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+    }
+
+    private boolean begin(byte tag) {
+        tick();
+        if (out == null) return false;
+        try {
+            out.writeByte(tag);
+            return true;
+        } catch (IOException e) {
+            fail(e);
+            return false;
+        }
+    }
+
+    private void writeName(String name) throws IOException {
+        Integer index = names.get(name);
+        if (index != null) {
+            out.writeByte(index);
+            return;
+        }
+        index = names.size();
+        names.put(name, index);
+        out.writeByte(index);
+        out.writeUTF(name);
+    }
+
+    private void fail(IOException e) {
+        System.err.println("Event recording stopped");
+        e.printStackTrace();
+        close();
+    }
+}
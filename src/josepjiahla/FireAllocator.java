@@ -0,0 +1,103 @@
+package josepjiahla;
+
+import robocode.Rules;
+
+import java.awt.geom.Point2D;
+import java.util.*;
+
+// Repartiment d'objectius del comandant: assignació voraç tirador-enemic pel dany esperat,
+// limitat a l'energia que li queda a cada enemic perquè no hi acabin tots disparant al mateix.
+// El cost és acotat (tiradors² × slots) i només es comunica el que canvia respecte l'últim enviament.
+final class FireAllocator {
+    private static final double ROBOT_WIDTH = 36;
+    private static final int VOLLEYS = 4; // trets que comptem per tirador en cada repartiment
+
+    private final List<String> shooters = new ArrayList<>();
+    private final Map<String, String> sent = new HashMap<>(); // tirador -> enemic ja comunicat (null: cap)
+    private final Point2D.Double position = new Point2D.Double();
+    private double[] shooterX = new double[0];
+    private double[] shooterY = new double[0];
+    private int[] targets = new int[0];
+    private final double[] remaining = new double[EnemyTable.CAPACITY];
+
+    // Retorna el nombre de tiradors amb posició coneguda; els resultats es llegeixen amb shooter(i) i target(i)
+    int allocate(Collection<String> members, EnemyTable enemies, TeammateTracker teammates, long now) {
+        shooters.clear();
+        if (shooterX.length < members.size()) {
+            shooterX = new double[members.size()];
+            shooterY = new double[members.size()];
+            targets = new int[members.size()];
+        }
+        for (String member : members) {
+            if (!teammates.estimate(member, now, position)) continue;
+            shooterX[shooters.size()] = position.x;
+            shooterY[shooters.size()] = position.y;
+            targets[shooters.size()] = -1;
+            shooters.add(member);
+        }
+        for (int slot = 0; slot < enemies.highWater(); slot++) {
+            remaining[slot] = enemies.energy[slot];
+        }
+
+        // A cada pas, la parella tirador-enemic que més dany útil afegeix
+        for (int round = 0; round < shooters.size(); round++) {
+            int bestShooter = -1;
+            int bestSlot = -1;
+            double bestValue = -1;
+            double bestDamage = 0;
+            for (int i = 0; i < shooters.size(); i++) {
+                if (targets[i] >= 0) continue;
+                for (int slot = 0; slot < enemies.highWater(); slot++) {
+                    if (!enemies.isActive(slot)) continue;
+                    // Amb tots els enemics ja coberts, desempata pel que més mal rebria
+                    double damage = expectedDamage(i, enemies, slot, now);
+                    double value = Math.min(damage, remaining[slot]);
+                    if (value > bestValue || (value == bestValue && damage > bestDamage)) {
+                        bestValue = value;
+                        bestDamage = damage;
+                        bestShooter = i;
+                        bestSlot = slot;
+                    }
+                }
+            }
+            if (bestShooter < 0) break;
+            targets[bestShooter] = bestSlot;
+            remaining[bestSlot] = Math.max(0, remaining[bestSlot] - bestDamage);
+        }
+        return shooters.size();
+    }
+
+    String shooter(int index) {
+        return shooters.get(index);
+    }
+
+    int target(int index) {
+        return targets[index];
+    }
+
+    // Cert si l'objectiu del tirador (null: cap) és diferent del que se li va comunicar per última vegada.
+    // Un tirador a qui encara no hem dit res sempre rep l'assignació: pot arrossegar la d'un altre comandant.
+    boolean changed(String shooter, String enemy) {
+        boolean known = sent.containsKey(shooter);
+        return !Objects.equals(enemy, sent.put(shooter, enemy)) || !known;
+    }
+
+    void removeTeammate(String shooter) {
+        sent.remove(shooter);
+    }
+
+    // En deixar de ser comandant: el següent no sap què s'ha enviat
+    void forgetAssignments() {
+        sent.clear();
+    }
+
+    // Probabilitat d'encert per un enemic que fuig en línia recta mentre la bala vola, pel dany de VOLLEYS trets
+    // Es rebaixa amb la confiança de la posició: no té sentit assignar un tirador a on era l'enemic fa molt
+    private double expectedDamage(int shooter, EnemyTable enemies, int slot, long now) {
+        double distance = Point2D.distance(shooterX[shooter], shooterY[shooter], enemies.x[slot], enemies.y[slot]);
+        double power = FollowTheLeaderRobot.determineFirePower(distance);
+        double flightTicks = Math.max(1, distance / Rules.getBulletSpeed(power));
+        double hitProbability = Math.min(1, ROBOT_WIDTH / (2 * Rules.MAX_VELOCITY * flightTicks));
+        return hitProbability * Rules.getBulletDamage(power) * VOLLEYS * enemies.confidence(slot, now);
+    }
+}
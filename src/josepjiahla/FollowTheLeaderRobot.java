@@ -1,805 +1,1005 @@
-package josepjiahla;
-
-import robocode.*;
-import robocode.util.Utils;
-import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.geom.Point2D;
-import java.io.IOException;
-import java.util.*;
-
-public class FollowTheLeaderRobot extends TeamRobot {
-    private boolean esLider = false;
-    private String nombreLider = null;
-    private List<String> miembrosEquipo = new ArrayList<>();
-    private TreeMap<String, Point2D.Double> posicionesRobots = new TreeMap<>();
-    private Map<String, String> jerarquia = new LinkedHashMap<>();
-    private Set<String> miembrosVivos = new HashSet<>();
-    private List<Point2D.Double> esquinas = new ArrayList<>();
-    private int indiceEsquinaActual = -1;
-    private boolean sentidoHorario = true;
-    private long tiempoUltimoCambioRol = 0;
-    private TreeMap<String, EnemyInfo> enemigos = new TreeMap<>();
-    private EnemyInfo enemigoObjetivo = null;
-    private long tiempoUltimaVezVistoEnemigo = 0;
-    private TreeMap<String, Double> distanciasDesdeRobots = new TreeMap<>();
-    private int mensajesEsperadosDistancia = 0;
-
-    // Constantes
-    private static final double MAX_FIRE_POWER = 3.0;
-    private static final double MIN_FIRE_POWER = 1.0;
-    private static final long ROLE_SWITCH_INTERVAL = 300; // 15 seconds assuming 20 ticks/sec
-    private static final double FOLLOW_DISTANCE = 100;
-    private static final double RETRAER_DISTANCIA = 50;
-    private static final long POSITION_BROADCAST_INTERVAL = 5;
-    private static final long RADAR_SWEEP_INTERVAL = 40;
-    private static final double SAFETY_MARGIN = 0.10;
-    private static final double DISTANCE_TOLERANCE = 5.0;
-
-    // Variables de movimiento
-    private Point2D.Double destination = null;
-    private boolean isMoving = false;
-
-    @Override
-    public void run() {
-        setColors(Color.BLACK, Color.GREEN, Color.GREEN);
-        iniciarYRealizarHandshake();
-        tiempoUltimoCambioRol = getTime();
-
-        // Solo agregar miembros vivos si la jerarquía está establecida
-        while (!jerarquia.containsKey(getName()) && !esLider) {
-            execute();
-        }
-
-        long lastPositionBroadcast = 0;
-
-        while (true) {
-            long currentTime = getTime();
-
-            // Rotació de rols periòdica
-            if (currentTime - lastRoleSwitchTime >= ROLE_SWITCH_INTERVAL) {
-                switchRoles();
-                lastRoleSwitchTime = currentTime;
-            }
-
-            // Comportament segons si és el comandant o no
-            if (isCommander) {
-                navigateCommander();
-                choosePrimaryTarget();
-                broadcastPrimaryTarget();
-            } else {
-                followPredecessor();
-            }
-
-            manageRadar();
-
-            // Atacar l'enemic si està visible
-            if (primaryTarget != null && (currentTime - lastEnemySeenTime) < RADAR_SWEEP_INTERVAL) {
-                trackAndFire();
-            }
-
-            // Actualització periòdica de posicions
-            if (currentTime - lastPositionBroadcast >= POSITION_BROADCAST_INTERVAL) {
-                broadcastLocation();
-                lastPositionBroadcast = currentTime;
-            }
-
-            execute();
-        }
-    }
-
-    private void definirEsquinasCampoBatalla() {
-        double margenX = 100;
-        double margenY = 80;
-
-        esquinas.add(new Point2D.Double(margenX, margenY)); // Esquina inferior izquierda
-        esquinas.add(new Point2D.Double(1000 - margenX, margenY)); // Esquina inferior derecha
-        esquinas.add(new Point2D.Double(1000 - margenX, 800 - margenY)); // Esquina superior derecha
-        esquinas.add(new Point2D.Double(margenX, 800 - margenY)); // Esquina superior izquierda
-    }
-
-    private void realizarHandshake() {
-        int miNumeroAleatorio = (int) (Math.random() * 1000);
-        try {
-            broadcastMessage(new PropuestaLider(getName(), miNumeroAleatorio));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        miembrosEquipo.add(getName() + "#" + miNumeroAleatorio);
-
-        long tiempoEspera = getTime() + 5;
-        while (getTime() < tiempoEspera) {
-            execute();
-        }
-
-        seleccionarLider();
-        establecerJerarquia();
-    }
-
-    private void seleccionarLider() {
-        int numeroMasAlto = -1;
-
-        for (String miembro : miembrosEquipo) {
-            int numero = obtenerNumeroAleatorioDeNombre(miembro);
-            if (numero > numeroMasAlto) {
-                numeroMasAlto = numero;
-                nombreLider = miembro.split("#")[0];
-            }
-        }
-
-        esLider = nombreLider.equals(getName());
-    }
-
-    private void iniciarYRealizarHandshake() {
-        setAdjustGunForRobotTurn(true);
-        setAdjustRadarForGunTurn(true);
-        setAdjustRadarForRobotTurn(true);
-        defineBattlefieldCorners();
-    }
-
-    private void defineBattlefieldCorners() {
-        double marginX = getBattleFieldWidth() * SAFETY_MARGIN;
-        double marginY = getBattleFieldHeight() * SAFETY_MARGIN;
-
-        battlefieldCorners.clear();
-        battlefieldCorners.add(new Point2D.Double(marginX, marginY));
-        battlefieldCorners.add(new Point2D.Double(getBattleFieldWidth() - marginX, marginY));
-        battlefieldCorners.add(new Point2D.Double(getBattleFieldWidth() - marginX, getBattleFieldHeight() - marginY));
-        battlefieldCorners.add(new Point2D.Double(marginX, getBattleFieldHeight() - marginY));
-    }
-
-    private void initiateHandshake() {
-        int randomNumber = (int) (Math.random() * 1000);
-        try {
-            broadcastMessage(new LeaderProposal(getName(), randomNumber));
-        } catch (IOException e) {
-            logError("Failed to send LeaderProposal", e);
-        }
-
-        teamMembers.add(getName() + "#" + randomNumber);
-
-        long waitUntil = getTime() + 5;
-        while (getTime() < waitUntil) {
-            execute();
-        }
-
-        selectCommander();
-        establishHierarchy();
-    }
-
-    private void selectCommander() {
-        int highestNumber = -1;
-        String potentialCommander = null;
-
-        for (String member : teamMembers) {
-            int number = extractRandomNumber(member);
-            if (number > highestNumber) {
-                highestNumber = number;
-                potentialCommander = member.split("#")[0];
-            }
-        }
-
-        if (potentialCommander != null) {
-            currentCommander = potentialCommander;
-            isCommander = currentCommander.equals(getName());
-        }
-    }
-
-    private int extractRandomNumber(String member) {
-        String[] parts = member.split("#");
-        try {
-            return parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
-        } catch (NumberFormatException e) {
-            logError("Invalid number format in team member: " + member, e);
-            return 0;
-        }
-    }
-
-    private void establishHierarchy() {
-        if (isCommander) {
-            announceCommander();
-
-            distancesFromCommander.clear();
-            expectedDistanceMessages = teamMembers.size() - 1;
-
-            long waitTime = getTime() + 40;
-            while (distancesFromCommander.size() < expectedDistanceMessages && getTime() < waitTime) {
-                execute();
-            }
-
-            buildHierarchy();
-            broadcastHierarchy();
-        } else {
-            waitForCommanderLocation();
-            reportDistanceToCommander();
-            waitForHierarchy();
-        }
-    }
-
-    private void announceCommander() {
-        try {
-            broadcastMessage(new CommanderAnnouncement(getName(), getX(), getY()));
-        } catch (IOException e) {
-            logError("Failed to send CommanderAnnouncement", e);
-        }
-    }
-
-    private void waitForCommanderLocation() {
-        while (!robotLocations.containsKey(currentCommander)) {
-            execute();
-        }
-    }
-
-    private void reportDistanceToCommander() {
-        Point2D.Double commanderPos = robotLocations.get(currentCommander);
-        double distance = Point2D.distance(getX(), getY(), commanderPos.getX(), commanderPos.getY());
-        try {
-            sendMessage(currentCommander, new DistanceReport(getName(), distance));
-        } catch (IOException e) {
-            logError("Failed to send DistanceReport to commander", e);
-        }
-    }
-
-    private void waitForHierarchy() {
-        while (!teamHierarchy.containsKey(getName())) {
-            execute();
-        }
-    }
-
-    private void buildHierarchy() {
-        List<Map.Entry<String, Double>> sortedEntries = new ArrayList<>(distancesFromCommander.entrySet());
-        sortedEntries.sort(Comparator.comparingDouble(Map.Entry::getValue));
-
-        teamHierarchy.clear();
-        String previous = currentCommander;
-
-        for (Map.Entry<String, Double> entry : sortedEntries) {
-            String robot = entry.getKey();
-            teamHierarchy.put(robot, previous);
-            previous = robot;
-        }
-    }
-
-    private void broadcastHierarchy() {
-        try {
-            broadcastMessage(new HierarchyUpdate(teamHierarchy));
-        } catch (IOException e) {
-            logError("Failed to send HierarchyUpdate", e);
-        }
-    }
-
-    private void switchRoles() {
-        clockwise = !clockwise;
-        List<String> membersList = new ArrayList<>(teamHierarchy.keySet());
-        membersList.add(0, currentCommander);
-
-        String newCommander = null;
-        for (int i = membersList.size() - 1; i >= 0; i--) {
-            String candidate = membersList.get(i);
-            if (activeMembers.contains(candidate)) {
-                newCommander = candidate;
-                break;
-            }
-        }
-
-        if (newCommander != null) {
-            currentCommander = newCommander;
-            isCommander = currentCommander.equals(getName());
-            rebuildHierarchy(membersList);
-            announceNewCommander();
-        }
-    }
-
-    private void rebuildHierarchy(List<String> members) {
-        teamHierarchy.clear();
-        String previous = currentCommander;
-
-        for (String member : members) {
-            if (activeMembers.contains(member)) {
-                teamHierarchy.put(member, previous);
-                previous = member;
-            }
-        }
-    }
-
-    private void moverLider() {
-        if (indiceEsquinaActual == -1) {
-            indiceEsquinaActual = obtenerIndiceEsquinaMasCercana();
-        }
-
-        Point2D.Double esquinaObjetivo = esquinas.get(indiceEsquinaActual);
-        irA(esquinaObjetivo.getX(), esquinaObjetivo.getY());
-
-        // Verificar si ya llegó a la esquina objetivo
-        if (obtenerDistanciaA(esquinaObjetivo) < 20) {
-            indiceEsquinaActual = (indiceEsquinaActual + 1) % esquinas.size();
-        }
-    }
-
-    private void seguirPredecesor() {
-        String predecesor = obtenerPredecesorVivo(getName());
-        if (predecesor != null) {
-            Point2D.Double posicionPredecesor = posicionesRobots.get(predecesor);
-            if (posicionPredecesor != null) {
-                double distancia = obtenerDistanciaA(posicionPredecesor);
-                if (distancia > 100) {
-                    irA(posicionPredecesor.getX(), posicionPredecesor.getY());
-                } else if (distancia < 50) {
-                    back(50);
-                }
-            }
-        }
-    }
-
-    private String getAlivePredecessor(String robot) {
-        String predecessor = teamHierarchy.get(robot);
-        while (predecessor != null && !activeMembers.contains(predecessor)) {
-            predecessor = teamHierarchy.get(predecessor);
-        }
-        return (predecessor == null && !robot.equals(currentCommander)) ? currentCommander : predecessor;
-    }
-
-    private void manageRadar() {
-        if (primaryTarget != null) {
-            double absoluteBearing = Math.toDegrees(Math.atan2(primaryTarget.getX() - getX(), primaryTarget.getY() - getY()));
-            double radarTurn = Utils.normalRelativeAngleDegrees(absoluteBearing - getRadarHeading());
-            setTurnRadarRight(radarTurn * 2);
-        } else {
-            setTurnRadarRight(360);
-        }
-    }
-
-    private void choosePrimaryTarget() {
-        if (detectedEnemies.isEmpty()) {
-            primaryTarget = null;
-            return;
-        }
-        enemigoObjetivo = enemigos.values().stream().min(Comparator.comparingDouble(EnemyInfo::getDistance)).orElse(null);
-        tiempoUltimaVezVistoEnemigo = getTime();
-    }
-
-    private void broadcastPrimaryTarget() {
-        if (primaryTarget != null) {
-            try {
-                broadcastMessage(new EnemyTarget(primaryTarget));
-            } catch (IOException e) {
-                logError("Failed to send EnemyTarget", e);
-            }
-        }
-    }
-
-    private void trackAndFire() {
-        if (primaryTarget == null) return;
-
-        double firePower = determineFirePower(primaryTarget.getDistance());
-        double bulletSpeed = Rules.getBulletSpeed(firePower);
-        double timeToHit = primaryTarget.getDistance() / bulletSpeed;
-
-        double futureX = primaryTarget.getX() + Math.sin(Math.toRadians(primaryTarget.getDirection())) * primaryTarget.getSpeed() * timeToHit;
-        double futureY = primaryTarget.getY() + Math.cos(Math.toRadians(primaryTarget.getDirection())) * primaryTarget.getSpeed() * timeToHit;
-
-        futureX = clamp(futureX, 18, getBattleFieldWidth() - 18);
-        futureY = clamp(futureY, 18, getBattleFieldHeight() - 18);
-
-        double targetAngle = Math.toDegrees(Math.atan2(futureX - getX(), futureY - getY()));
-        double gunTurn = Utils.normalRelativeAngleDegrees(targetAngle - getGunHeading());
-
-        setTurnGunRight(gunTurn);
-
-        if (Math.abs(gunTurn) < 10) {
-            setFire(firePower);
-        }
-    }
-
-    private double determineFirePower(double distance) {
-        if (distance < 200) return MAX_FIRE_POWER;
-        if (distance < 400) return 2.5;
-        return MIN_FIRE_POWER;
-    }
-
-    private double clamp(double value, double min, double max) {
-        return Math.max(Math.min(value, max), min);
-    }
-
-    private void broadcastLocation() {
-        try {
-            broadcastMessage(new PositionUpdate(getName(), getX(), getY()));
-        } catch (IOException e) {
-            logError("Failed to send PositionUpdate", e);
-        }
-    }
-
-    private void logError(String message, Exception e) {
-        System.err.println(message);
-        e.printStackTrace();
-    }
-
-    @Override
-    public void onScannedRobot(ScannedRobotEvent event) {
-        if (isTeamMember(event.getName())) return;
-
-        double absoluteBearing = Math.toRadians(getHeading() + event.getBearing());
-        double enemyX = getX() + Math.sin(absoluteBearing) * event.getDistance();
-        double enemyY = getY() + Math.cos(absoluteBearing) * event.getDistance();
-
-        EnemyData enemyInfo = new EnemyData(
-                event.getName(),
-                event.getBearing(),
-                event.getDistance(),
-                event.getHeading(),
-                event.getVelocity(),
-                enemyX,
-                enemyY,
-                getTime(),
-                event.getEnergy()
-        );
-
-        detectedEnemies.put(event.getName(), enemyInfo);
-
-        try {
-            sendMessage(currentCommander, enemyInfo);
-        } catch (IOException e) {
-            logError("Failed to send EnemyData to commander", e);
-        }
-
-        if (!isCommander && primaryTarget == null) return;
-
-        if (primaryTarget != null && event.getName().equals(primaryTarget.getEnemyName())) {
-            primaryTarget = enemyInfo;
-            lastEnemySeenTime = getTime();
-        }
-    }
-
-    private boolean isTeamMember(String robotName) {
-        for (String member : teamMembers) {
-            if (member.startsWith(robotName + "#")) return true;
-        }
-        return false;
-    }
-
-    @Override
-    public void onHitRobot(HitRobotEvent event) {
-        if (!isTeamMember(event.getName())) {
-            setFire(2);
-            back(RETRAER_DISTANCIA); // Corrected here
-        } else {
-            back(20);
-        }
-    }
-
-    @Override
-    public void onRobotDeath(RobotDeathEvent event) {
-        String robotMuerto = event.getName();
-        if (isTeammate(robotMuerto)) {
-            miembrosVivos.remove(robotMuerto);
-            posicionesRobots.remove(robotMuerto);
-
-            if (robotMuerto.equals(nombreLider)) {
-                if (miembrosVivos.contains(getName()) && jerarquia.get(getName()) == null) {
-                    esLider = true;
-                    nombreLider = getName();
-                    jerarquia.remove(getName());
-
-                    try {
-                        broadcastMessage(new AnuncioLider(nombreLider, getX(), getY()));
-                        broadcastMessage(new ActualizacionJerarquia(jerarquia));
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                } else {
-                    nombreLider = obtenerPredecesorVivo(robotMuerto);
-                }
-            }
-
-            teamHierarchy.remove(deadRobot);
-            updateHierarchyAfterDeath(deadRobot);
-        } else {
-            detectedEnemies.remove(deadRobot);
-            if (primaryTarget != null && primaryTarget.getEnemyName().equals(deadRobot)) {
-                primaryTarget = null;
-            }
-        }
-    }
-
-    private void handleCommanderDeath(String deadCommander) {
-        if (activeMembers.contains(getName()) && teamHierarchy.get(getName()) == null) {
-            isCommander = true;
-            currentCommander = getName();
-            teamHierarchy.remove(getName());
-
-            try {
-                broadcastMessage(new CommanderAnnouncement(currentCommander, getX(), getY()));
-                broadcastMessage(new HierarchyUpdate(teamHierarchy));
-            } catch (IOException e) {
-                logError("Failed to announce new commander after commander death", e);
-            }
-        } else {
-            currentCommander = getAlivePredecessor(deadCommander);
-        }
-    }
-
-    private void updateHierarchyAfterDeath(String deadRobot) {
-        for (Map.Entry<String, String> entry : teamHierarchy.entrySet()) {
-            String robot = entry.getKey();
-            String predecessor = entry.getValue();
-
-            if (predecessor.equals(deadRobot)) {
-                String newPredecessor = getAlivePredecessor(predecessor);
-                teamHierarchy.put(robot, newPredecessor);
-            }
-        }
-    }
-
-    @Override
-    public void onPaint(Graphics2D g) {
-        if (esLider) {
-            g.setColor(java.awt.Color.YELLOW);
-            int radio = 50;
-            int diametro = radio * 2;
-            int x = (int) (getX() - radio);
-            int y = (int) (getY() - radio);
-            g.drawOval(x, y, diametro, diametro);
-        }
-    }
-
-    public void onMessageReceived(MessageEvent e) {
-        Object mensaje = e.getMessage();
-        if (mensaje instanceof PropuestaLider) {
-            PropuestaLider propuesta = (PropuestaLider) mensaje;
-            String nombreMiembro = propuesta.getRobotName() + "#" + propuesta.getRandomNumber();
-            if (!miembrosEquipo.contains(nombreMiembro)) {
-                miembrosEquipo.add(nombreMiembro);
-                miembrosVivos.add(propuesta.getRobotName());
-            }
-        } else if (mensaje instanceof AnuncioLider) {
-            AnuncioLider mensajeLider = (AnuncioLider) mensaje;
-            nombreLider = mensajeLider.getRobotName();
-            esLider = nombreLider.equals(getName());
-            posicionesRobots.put(nombreLider, new Point2D.Double(mensajeLider.getX(), mensajeLider.getY()));
-        } else if (mensaje instanceof ActualizacionPosicion) {
-            ActualizacionPosicion actualizacionPosicion = (ActualizacionPosicion) mensaje;
-            posicionesRobots.put(actualizacionPosicion.getRobotName(), new Point2D.Double(actualizacionPosicion.getX(), actualizacionPosicion.getY()));
-        } else if (mensaje instanceof EnemyInfo) {
-            EnemyInfo enemigoInfo = (EnemyInfo) mensaje;
-            enemigos.put(enemigoInfo.getEnemyName(), enemigoInfo);
-        } else if (mensaje instanceof MensajeEnemigoObjetivo) {
-            MensajeEnemigoObjetivo tem = (MensajeEnemigoObjetivo) mensaje;
-            enemigoObjetivo = tem.getEnemyInfo();
-            tiempoUltimaVezVistoEnemigo = getTime();
-        } else if (mensaje instanceof MensajeDistancia && esLider) {
-            MensajeDistancia md = (MensajeDistancia) mensaje;
-            distanciasDesdeRobots.put(md.getRobotName(), md.getDistance());
-        } else if (mensaje instanceof ActualizacionJerarquia) {
-            ActualizacionJerarquia aj = (ActualizacionJerarquia) mensaje;
-            jerarquia = aj.getHierarchy();
-        }
-    }
-
-    @Override
-    public void onMessageReceived(MessageEvent event) {
-        Object msg = event.getMessage();
-
-        try {
-            if (msg instanceof LeaderProposal) {
-                handleLeaderProposal((LeaderProposal) msg);
-            } else if (msg instanceof CommanderAnnouncement) {
-                handleCommanderAnnouncement((CommanderAnnouncement) msg);
-            } else if (msg instanceof PositionUpdate) {
-                handlePositionUpdate((PositionUpdate) msg);
-            } else if (msg instanceof EnemyData) {
-                handleEnemyData((EnemyData) msg);
-            } else if (msg instanceof EnemyTarget) {
-                handleEnemyTarget((EnemyTarget) msg);
-            } else if (msg instanceof DistanceReport && isCommander) {
-                handleDistanceReport((DistanceReport) msg);
-            } else if (msg instanceof HierarchyUpdate) {
-                handleHierarchyUpdate((HierarchyUpdate) msg);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
-    private void handleLeaderProposal(LeaderProposal proposal) {
-        String name = proposal.getRobotName() + "#" + proposal.getRandomNumber();
-        if (!teamMembers.contains(name)) {
-            teamMembers.add(name);
-            activeMembers.add(proposal.getRobotName());
-        }
-    }
-
-    private void handleCommanderAnnouncement(CommanderAnnouncement announcement) {
-        currentCommander = announcement.getCommanderName();
-        isCommander = currentCommander.equals(getName());
-        robotLocations.put(currentCommander, new Point2D.Double(announcement.getX(), announcement.getY()));
-    }
-
-    private void handlePositionUpdate(PositionUpdate update) {
-        robotLocations.put(update.getRobotName(), new Point2D.Double(update.getX(), update.getY()));
-    }
-
-    private void handleEnemyData(EnemyData enemy) {
-        detectedEnemies.put(enemy.getEnemyName(), enemy);
-    }
-
-    private void handleEnemyTarget(EnemyTarget targetMsg) {
-        primaryTarget = targetMsg.getEnemyInfo();
-        lastEnemySeenTime = getTime();
-    }
-
-    private void handleDistanceReport(DistanceReport report) {
-        distancesFromCommander.put(report.getRobotName(), report.getDistance());
-    }
-
-    private void handleHierarchyUpdate(HierarchyUpdate update) {
-        teamHierarchy.clear();
-        teamHierarchy.putAll(update.getHierarchy());
-    }
-
-    // Classes Internes per Missatges
-    static class LeaderProposal implements java.io.Serializable {
-        private final String robotName;
-        private final int randomNumber;
-
-        public LeaderProposal(String robotName, int randomNumber) {
-            this.robotName = robotName;
-            this.randomNumber = randomNumber;
-        }
-
-        public String getRobotName() {
-            return robotName;
-        }
-
-        public int getRandomNumber() {
-            return randomNumber;
-        }
-    }
-
-    static class CommanderAnnouncement implements java.io.Serializable {
-        private final String commanderName;
-        private final double x, y;
-
-        public CommanderAnnouncement(String commanderName, double x, double y) {
-            this.commanderName = commanderName;
-            this.x = x;
-            this.y = y;
-        }
-
-        public String getCommanderName() {
-            return commanderName;
-        }
-
-        public double getX() {
-            return x;
-        }
-
-        public double getY() {
-            return y;
-        }
-    }
-
-    static class PositionUpdate implements java.io.Serializable {
-        private final String robotName;
-        private final double x, y;
-
-        public PositionUpdate(String robotName, double x, double y) {
-            this.robotName = robotName;
-            this.x = x;
-            this.y = y;
-        }
-
-        public String getRobotName() {
-            return robotName;
-        }
-
-        public double getX() {
-            return x;
-        }
-
-        public double getY() {
-            return y;
-        }
-    }
-
-    static class DistanceReport implements java.io.Serializable {
-        private final String robotName;
-        private final double distance;
-
-        public DistanceReport(String robotName, double distance) {
-            this.robotName = robotName;
-            this.distance = distance;
-        }
-
-        public String getRobotName() {
-            return robotName;
-        }
-
-        public double getDistance() {
-            return distance;
-        }
-    }
-
-    static class EnemyData implements java.io.Serializable {
-        private final String enemyName;
-        private final double bearing;
-        private final double distance;
-        private final double direction;
-        private final double speed;
-        private final double x, y;
-        private final long time;
-        private final double energy;
-
-        public EnemyData(String enemyName, double bearing, double distance, double direction, double speed, double x, double y, long time, double energy) {
-            this.enemyName = enemyName;
-            this.bearing = bearing;
-            this.distance = distance;
-            this.direction = direction;
-            this.speed = speed;
-            this.x = x;
-            this.y = y;
-            this.time = time;
-            this.energy = energy;
-        }
-
-        public String getEnemyName() {
-            return enemyName;
-        }
-
-        public double getBearing() {
-            return bearing;
-        }
-
-        public double getDistance() {
-            return distance;
-        }
-
-        public double getDirection() {
-            return direction;
-        }
-
-        public double getSpeed() {
-            return speed;
-        }
-
-        public double getX() {
-            return x;
-        }
-
-        public double getY() {
-            return y;
-        }
-
-        public long getTime() {
-            return time;
-        }
-
-        public double getEnergy() {
-            return energy;
-        }
-    }
-
-    static class EnemyTarget implements java.io.Serializable {
-        private final EnemyData enemyInfo;
-
-        public EnemyTarget(EnemyData enemyInfo) {
-            this.enemyInfo = enemyInfo;
-        }
-
-        public EnemyData getEnemyInfo() {
-            return enemyInfo;
-        }
-    }
-
-    static class HierarchyUpdate implements java.io.Serializable {
-        private final Map<String, String> hierarchy;
-
-        public HierarchyUpdate(Map<String, String> hierarchy) {
-            this.hierarchy = hierarchy;
-        }
-
-        public Map<String, String> getHierarchy() {
-            return hierarchy;
-        }
-    }
-}
+package josepjiahla;
+
+import robocode.*;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+public class FollowTheLeaderRobot extends TeamRobot {
+    private boolean isCommander = false;
+    private String currentCommander = null;
+    private final LeaderElection election = new LeaderElection();
+    private final Set<String> teammateNames = new HashSet<>(); // noms sense el número del handshake
+    private final TeammateTracker teammates = new TeammateTracker();
+    private final FollowerChain teamHierarchy = new FollowerChain();
+    private Set<String> activeMembers = new HashSet<>();
+    private List<Point2D.Double> battlefieldCorners = new ArrayList<>();
+    private int targetCornerIndex = -1;
+    private boolean clockwise = true;
+    private final EnemyTable detectedEnemies = new EnemyTable();
+    private final SpatialGrid spatialIndex = new SpatialGrid(); // enemics i companys (sense aquest robot)
+    private final Point2D.Double teammatePosition = new Point2D.Double();
+    private int primaryTarget = -1; // slot de detectedEnemies, -1 si no n'hi ha
+    private final TargetingEngine targeting = new TargetingEngine();
+    private final RadarCoordinator radar = new RadarCoordinator();
+    private final FireAllocator fireAllocator = new FireAllocator();
+    private final EnemyWaves enemyWaves = new EnemyWaves();
+    private final MovementEngine movement = new MovementEngine(enemyWaves);
+    // Estàtic: Robocode crea un robot nou cada ronda i volem el resum de tota la batalla
+    private static final TurnProfiler profiler = new TurnProfiler();
+    private static final Map<String, EnemyProfile> enemyProfiles = new HashMap<>();
+    private final EnemyProfiles profiles = new EnemyProfiles(this, enemyProfiles);
+    private final VirtualGuns virtualGuns = new VirtualGuns(targeting, profiles);
+    private final TickScheduler scheduler = new TickScheduler();
+    private boolean targetVisible = false; // l'objectiu s'ha vist fa menys de RADAR_SWEEP_INTERVAL torns
+    private boolean replanMovement = true;
+    private Map<String, Double> distancesFromCommander = new TreeMap<>();
+    private int expectedDistanceMessages = 0;
+    private FormationPhase formationPhase = FormationPhase.PROPOSING;
+    private long formationDeadline = 0;
+    private final TeamMessageCodec codec = new TeamMessageCodec();
+    private final TeamOutbox outbox = new TeamOutbox(codec);
+    private final EventRecorder recorder = new EventRecorder();
+
+    // Constantes (les ajustables es llegeixen de FollowTheLeader.properties, vegeu TeamParameters)
+    private static final double FIRE_TOLERANCE = Math.toRadians(10); // error màxim del canó per disparar
+    private static final long ROLE_SWITCH_INTERVAL = TeamParameters.ROLE_SWITCH_INTERVAL; // 300 = 15 seconds assuming 20 ticks/sec
+    private static final double FOLLOW_DISTANCE = TeamParameters.FOLLOW_DISTANCE;
+    private static final double RETRAER_DISTANCIA = 50;
+    private static final double FOLLOW_SPACING = (RETRAER_DISTANCIA + FOLLOW_DISTANCE) / 2; // centre de la banda de seguiment
+    private static final double POSITION_ERROR_THRESHOLD = TeamParameters.POSITION_ERROR_THRESHOLD; // error màxim tolerat en l'estimació dels companys
+    private static final long POSITION_HEARTBEAT_INTERVAL = TeamParameters.POSITION_HEARTBEAT_INTERVAL;
+    private static final long RADAR_SWEEP_INTERVAL = 40;
+    private static final double SAFETY_MARGIN = TeamParameters.SAFETY_MARGIN;
+    private static final double DISTANCE_TOLERANCE = 5.0;
+    private static final long PROPOSAL_WINDOW = 5; // només si algun company no arriba a proposar
+    private static final long DISTANCE_REPORT_TIMEOUT = 40;
+    private static final long ENEMY_SHARE_INTERVAL = 2; // torns mínims entre versions compartides d'un mateix enemic
+    private static final long FIRE_DETECTION_GAP = 2; // amb més torns entre escanejos, la caiguda d'energia és ambigua
+    private static final long MOVEMENT_REPLAN_INTERVAL = 5;
+
+    // Tasques del TickScheduler
+    private static final int ROLE_SWITCH_TASK = 0;
+    private static final int POSITION_HEARTBEAT_TASK = 1;
+    private static final int TARGET_EXPIRY_TASK = 2;
+    private static final int MOVEMENT_REPLAN_TASK = 3;
+    private static final String SCHEDULER_CONDITION = "scheduler";
+
+    // Variables de movimiento
+    private Point2D.Double destination = null;
+    private boolean isMoving = false;
+    private final Point2D.Double ownEstimate = new Point2D.Double();
+
+    @Override
+    public void run() {
+        recorder.open(this);
+        setupRobot();
+        initiateHandshake();
+
+        while (true) {
+            long currentTime = getTime();
+            recorder.tick();
+
+            // Formació de l'equip: avança un pas per torn mentre el robot ja lluita.
+            // La resta de coses periòdiques (rotació, heartbeat, caducitat de l'objectiu) són al scheduler.
+            if (formationPhase != FormationPhase.FORMED) {
+                advanceFormation(currentTime);
+            }
+
+            // Comportament segons si és el comandant o no
+            long stageStart = System.nanoTime();
+            enemyWaves.advance(currentTime, getX(), getY(), getHeadingRadians(), getVelocity());
+            if (isCommander) {
+                navigateCommander();
+                stageStart = profiler.record(TurnProfiler.MOVEMENT, stageStart);
+                if (formationPhase == FormationPhase.FORMED) {
+                    allocateTargets();
+                } else {
+                    choosePrimaryTarget();
+                }
+                stageStart = profiler.record(TurnProfiler.TARGET_SELECTION, stageStart);
+            } else {
+                // Només es replanifica quan alguna cosa ha canviat o s'ha acabat el moviment encarregat
+                if (replanMovement || getDistanceRemaining() == 0 || enemyWaves.threatens(getX(), getY())) {
+                    followPredecessor();
+                }
+                stageStart = profiler.record(TurnProfiler.MOVEMENT, stageStart);
+                // Sense jerarquia encara, cada robot tria el seu objectiu
+                if (formationPhase != FormationPhase.FORMED) {
+                    choosePrimaryTarget();
+                    stageStart = profiler.record(TurnProfiler.TARGET_SELECTION, stageStart);
+                }
+            }
+
+            manageRadar();
+            stageStart = profiler.record(TurnProfiler.RADAR, stageStart);
+
+            // Atacar l'enemic si està visible
+            virtualGuns.advance(detectedEnemies, currentTime);
+            if (primaryTarget >= 0 && targetVisible) {
+                trackAndFire();
+            }
+            stageStart = profiler.record(TurnProfiler.GUN, stageStart);
+
+            // Actualització de posició només quan l'estimació dels companys s'allunya massa
+            if (positionEstimateDrifted(currentTime)) {
+                broadcastLocation();
+            }
+
+            flushAndExecute();
+        }
+    }
+
+    // Envia tot el que s'ha acumulat durant el torn i passa al següent
+    private void flushAndExecute() {
+        long start = System.nanoTime();
+        try {
+            outbox.flush(this);
+        } catch (IOException e) {
+            logError("Failed to flush team messages", e);
+        }
+        profiler.record(TurnProfiler.BROADCAST, start);
+        execute();
+    }
+
+    // Package-private com choosePrimaryTarget i trackAndFire: MicroBenchmarks els crida sense run()
+    void setupRobot() {
+        setColors(Color.BLACK, Color.GREEN, Color.BLACK);
+        setAdjustGunForRobotTurn(true);
+        setAdjustRadarForGunTurn(true);
+        setAdjustRadarForRobotTurn(true);
+        teammates.setBounds(getBattleFieldWidth(), getBattleFieldHeight());
+        targeting.setBounds(getBattleFieldWidth(), getBattleFieldHeight());
+        movement.setBounds(getBattleFieldWidth(), getBattleFieldHeight());
+        spatialIndex.setBounds(getBattleFieldWidth(), getBattleFieldHeight());
+        // Els noms dels companys viatgen com a id des del primer missatge
+        List<String> roster = teamRoster();
+        codec.setRoster(roster);
+        profiles.setTeam(codec.rosterId(getName()), roster.size());
+        defineBattlefieldCorners();
+        setupScheduler();
+    }
+
+    // Un sol Condition per a tot el scheduler: Robocode genera el CustomEvent quan hi ha tasques vençudes
+    private void setupScheduler() {
+        scheduler.register(ROLE_SWITCH_TASK, this::rotateRoles);
+        scheduler.register(POSITION_HEARTBEAT_TASK, this::broadcastLocation);
+        scheduler.register(TARGET_EXPIRY_TASK, () -> targetVisible = false);
+        scheduler.register(MOVEMENT_REPLAN_TASK, () -> replanMovement = true);
+        addCustomEvent(new Condition(SCHEDULER_CONDITION) {
+            @Override
+            public boolean test() {
+                return scheduler.hasDue(getTime());
+            }
+        });
+    }
+
+    private void defineBattlefieldCorners() {
+        double marginX = getBattleFieldWidth() * SAFETY_MARGIN;
+        double marginY = getBattleFieldHeight() * SAFETY_MARGIN;
+
+        battlefieldCorners.clear();
+        battlefieldCorners.add(new Point2D.Double(marginX, marginY));
+        battlefieldCorners.add(new Point2D.Double(getBattleFieldWidth() - marginX, marginY));
+        battlefieldCorners.add(new Point2D.Double(getBattleFieldWidth() - marginX, getBattleFieldHeight() - marginY));
+        battlefieldCorners.add(new Point2D.Double(marginX, getBattleFieldHeight() - marginY));
+    }
+
+    private void initiateHandshake() {
+        int ticket = handshakeNumber();
+        outbox.broadcast(codec.encode(new LeaderProposal(getName(), ticket)));
+
+        election.add(getName(), ticket);
+        teammateNames.add(getName());
+        // Amb llavor els tiquets dels companys ja se saben: l'elecció es tanca aquest mateix torn
+        String[] mates = getTeammates();
+        if (TeamParameters.ELECTION_SEED != 0 && mates != null) {
+            for (String mate : mates) {
+                election.add(mate, LeaderElection.ticket(mate, getRoundNum(), TeamParameters.ELECTION_SEED));
+                teammateNames.add(mate);
+            }
+        }
+        formationPhase = FormationPhase.PROPOSING;
+        formationDeadline = getTime() + PROPOSAL_WINDOW;
+    }
+
+    // Únic punt aleatori del robot (si no hi ha llavor): el recorder desa el tiquet perquè el replay el reprodueixi
+    int handshakeNumber() {
+        int ticket = LeaderElection.ticket(getName(), getRoundNum(), TeamParameters.ELECTION_SEED);
+        recorder.random(ticket);
+        return ticket;
+    }
+
+    private void advanceFormation(long now) {
+        switch (formationPhase) {
+            case PROPOSING:
+                // Es tanca abans de temps quan ja han arribat totes les propostes
+                if (election.size() >= expectedTeamSize() || now >= formationDeadline) {
+                    selectCommander();
+                    if (isCommander) {
+                        announceCommander();
+                        distancesFromCommander.clear();
+                        expectedDistanceMessages = election.size() - 1;
+                        formationDeadline = now + DISTANCE_REPORT_TIMEOUT;
+                        formationPhase = FormationPhase.COLLECTING_DISTANCES;
+                    } else {
+                        formationPhase = FormationPhase.AWAITING_COMMANDER;
+                    }
+                }
+                break;
+            case COLLECTING_DISTANCES:
+                if (distancesFromCommander.size() >= expectedDistanceMessages || now >= formationDeadline) {
+                    buildHierarchy();
+                    broadcastHierarchy();
+                    completeFormation(now);
+                }
+                break;
+            case AWAITING_COMMANDER:
+                if (teammates.knows(currentCommander)) {
+                    reportDistanceToCommander();
+                    formationPhase = FormationPhase.AWAITING_HIERARCHY;
+                }
+                break;
+            case AWAITING_HIERARCHY:
+                if (teamHierarchy.contains(getName())) {
+                    completeFormation(now);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void completeFormation(long now) {
+        for (int i = 0; i < election.size(); i++) {
+            activeMembers.add(election.name(i));
+        }
+        radar.setMembers(activeMembers);
+        scheduleRoleSwitch(now);
+        formationPhase = FormationPhase.FORMED;
+    }
+
+    private int expectedTeamSize() {
+        String[] mates = getTeammates();
+        return mates == null ? 1 : mates.length + 1;
+    }
+
+    // El motor dona els mateixos noms a tots els companys: el roster no depèn de quines propostes han arribat
+    private List<String> teamRoster() {
+        List<String> roster = new ArrayList<>();
+        roster.add(getName());
+        String[] mates = getTeammates();
+        if (mates != null) roster.addAll(Arrays.asList(mates));
+        return roster;
+    }
+
+    private void selectCommander() {
+        String winner = election.winner();
+        if (winner != null) {
+            currentCommander = winner;
+            isCommander = currentCommander.equals(getName());
+        }
+    }
+
+    private void announceCommander() {
+        outbox.broadcast(codec.encode(new CommanderAnnouncement(getName(), getX(), getY())));
+    }
+
+    private void reportDistanceToCommander() {
+        Point2D.Double commanderPos = new Point2D.Double();
+        teammates.estimate(currentCommander, getTime(), commanderPos);
+        double distance = Point2D.distance(getX(), getY(), commanderPos.getX(), commanderPos.getY());
+        outbox.send(currentCommander, codec.encode(new DistanceReport(getName(), distance)));
+    }
+
+    private void buildHierarchy() {
+        List<Map.Entry<String, Double>> sortedEntries = new ArrayList<>(distancesFromCommander.entrySet());
+        sortedEntries.sort(Comparator.comparingDouble(Map.Entry::getValue));
+
+        List<String> followers = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : sortedEntries) {
+            followers.add(entry.getKey());
+        }
+        teamHierarchy.reset(currentCommander, followers);
+    }
+
+    private void broadcastHierarchy() {
+        outbox.broadcast(codec.encode(new HierarchyUpdate(teamHierarchy.toHierarchy())));
+    }
+
+    private void scheduleRoleSwitch(long now) {
+        scheduler.schedule(ROLE_SWITCH_TASK, now + ROLE_SWITCH_INTERVAL);
+    }
+
+    // Si aquest robot no és el comandant no fa res: la rotació la reprograma en rebre l'enllaç del que sí que ho és
+    private void rotateRoles() {
+        switchRoles();
+        if (!scheduler.isScheduled(ROLE_SWITCH_TASK)) {
+            scheduleRoleSwitch(getTime());
+        }
+    }
+
+    // Només el comandant rota: passa el comandament a l'últim de la cadena i ho avisa amb un sol enllaç
+    private void switchRoles() {
+        if (!isCommander) return;
+
+        String newCommander = teamHierarchy.last();
+        if (newCommander == null || newCommander.equals(currentCommander)) return;
+
+        HierarchyLink link = new HierarchyLink(newCommander);
+        handleHierarchyLink(link);
+        outbox.broadcast(codec.encode(link));
+    }
+
+    private void updateCommanderFromHierarchy() {
+        currentCommander = teamHierarchy.commander();
+        isCommander = getName().equals(currentCommander);
+        if (!isCommander) {
+            fireAllocator.forgetAssignments();
+        }
+    }
+
+    private void navigateCommander() {
+        // Amb una onada a prop s'esquiva com els seguidors i després es torna a la cantonada més propera
+        if (enemyWaves.threatens(getX(), getY())) {
+            refreshTeammatePositions();
+            Point2D.Double next = movement.choose(getX(), getY(), -1, FOLLOW_SPACING, spatialIndex,
+                    detectedEnemies, getTime());
+            driveTo(next.x, next.y);
+            isMoving = false;
+            return;
+        }
+        if (!isMoving) {
+            targetCornerIndex = findNearestCorner();
+            destination = battlefieldCorners.get(targetCornerIndex);
+            isMoving = true;
+        }
+
+        if (getDistance(destination) < DISTANCE_TOLERANCE) {
+            targetCornerIndex = clockwise
+                    ? (targetCornerIndex + 1) % battlefieldCorners.size()
+                    : (targetCornerIndex - 1 + battlefieldCorners.size()) % battlefieldCorners.size();
+            destination = battlefieldCorners.get(targetCornerIndex);
+        }
+
+        moveTo(destination.getX(), destination.getY());
+    }
+
+    private int findNearestCorner() {
+        double minDistance = Double.MAX_VALUE;
+        int nearestIndex = 0;
+
+        for (int i = 0; i < battlefieldCorners.size(); i++) {
+            double distance = getDistance(battlefieldCorners.get(i));
+            if (distance < minDistance) {
+                minDistance = distance;
+                nearestIndex = i;
+            }
+        }
+        return nearestIndex;
+    }
+
+    private double getDistance(Point2D.Double point) {
+        return Point2D.distance(getX(), getY(), point.getX(), point.getY());
+    }
+
+    private void moveTo(double x, double y) {
+        double dx = x - getX();
+        double dy = y - getY();
+        double turnAngle = FastMath.normalRelativeAngle(FastMath.atan2(dx, dy) - getHeadingRadians());
+
+        setTurnRightRadians(turnAngle);
+        setAhead(Math.hypot(dx, dy));
+    }
+
+    // No bloqueja: cada torn tria el punt de menys risc i només hi encarrega el moviment
+    private void followPredecessor() {
+        replanMovement = false;
+        scheduler.schedule(MOVEMENT_REPLAN_TASK, getTime() + MOVEMENT_REPLAN_INTERVAL);
+        String predecessor = getAlivePredecessor(getName());
+        if (predecessor == null || codec.rosterId(predecessor) < 0) return;
+
+        refreshTeammatePositions();
+        int anchor = SpatialGrid.TEAMMATE_BASE + codec.rosterId(predecessor);
+        if (!spatialIndex.contains(anchor)) return;
+        Point2D.Double next = movement.choose(getX(), getY(), anchor, FOLLOW_SPACING, spatialIndex,
+                detectedEnemies, getTime());
+        driveTo(next.x, next.y);
+    }
+
+    // Porta els companys de l'índex a la posició estimada ara (entre PositionUpdates només hi ha l'última
+    // posició rebuda) i en treu els que fa massa que no se sap on són
+    private void refreshTeammatePositions() {
+        for (String member : activeMembers) {
+            int rosterId = codec.rosterId(member);
+            if (rosterId < 0 || member.equals(getName())) continue;
+            if (teammates.estimate(member, getTime(), teammatePosition)) {
+                spatialIndex.move(SpatialGrid.TEAMMATE_BASE + rosterId, teammatePosition.x, teammatePosition.y);
+            } else {
+                spatialIndex.remove(SpatialGrid.TEAMMATE_BASE + rosterId);
+            }
+        }
+    }
+
+    // Com moveTo, però si el punt queda al darrere hi va marxa enrere en lloc de girar-se
+    private void driveTo(double x, double y) {
+        double dx = x - getX();
+        double dy = y - getY();
+        double turnAngle = FastMath.normalRelativeAngle(FastMath.atan2(dx, dy) - getHeadingRadians());
+        double distance = Math.hypot(dx, dy);
+        if (Math.abs(turnAngle) > Math.PI / 2) {
+            turnAngle = FastMath.normalRelativeAngle(turnAngle + Math.PI);
+            distance = -distance;
+        }
+        setTurnRightRadians(turnAngle);
+        setAhead(distance);
+    }
+
+    private String getAlivePredecessor(String robot) {
+        String predecessor = teamHierarchy.predecessor(robot);
+        return (predecessor == null && !robot.equals(currentCommander)) ? currentCommander : predecessor;
+    }
+
+    // Amb l'equip format cada radar manté els seus enemics; abans, o si no en té cap de fresc, escombra
+    private void manageRadar() {
+        evictStaleEnemies();
+        int slot = radar.isActive()
+                ? radar.nextTarget(getName(), detectedEnemies, teammates, getTime())
+                : primaryTarget;
+        if (slot >= 0 && detectedEnemies.time[slot] > getTime() - RADAR_SWEEP_INTERVAL) {
+            double absoluteBearing = FastMath.atan2(detectedEnemies.x[slot] - getX(), detectedEnemies.y[slot] - getY());
+            double radarTurn = FastMath.normalRelativeAngle(absoluteBearing - getRadarHeadingRadians());
+            setTurnRadarRightRadians(radarTurn * 2);
+        } else {
+            setTurnRadarRight(360);
+        }
+    }
+
+    void choosePrimaryTarget() {
+        do {
+            primaryTarget = spatialIndex.nearest(getX(), getY(), SpatialGrid.ENEMY);
+        } while (primaryTarget >= 0 && evictIfStale(primaryTarget));
+        if (primaryTarget >= 0) {
+            markTargetSeen();
+        }
+    }
+
+    // Cada tirador rep el seu objectiu directament, i només quan li canvia
+    private void allocateTargets() {
+        evictStaleEnemies();
+        int shooters = fireAllocator.allocate(activeMembers, detectedEnemies, teammates, getTime());
+        for (int i = 0; i < shooters; i++) {
+            String shooter = fireAllocator.shooter(i);
+            int slot = fireAllocator.target(i);
+            if (shooter.equals(getName())) {
+                primaryTarget = slot;
+                if (slot >= 0) markTargetSeen();
+            } else if (fireAllocator.changed(shooter, slot >= 0 ? detectedEnemies.name(slot) : null)) {
+                outbox.send(shooter, slot >= 0
+                        ? codec.encodeEnemy(TeamMessageCodec.ENEMY_TARGET, detectedEnemies, slot)
+                        : codec.encodeNoTarget());
+            }
+        }
+    }
+
+    void trackAndFire() {
+        if (primaryTarget < 0) return;
+
+        EnemyTable t = detectedEnemies;
+        int slot = primaryTarget;
+        double distance = Point2D.distance(getX(), getY(), t.x[slot], t.y[slot]);
+        double firePower = determineFirePower(distance);
+        double bulletSpeed = Rules.getBulletSpeed(firePower);
+
+        double targetAngle = virtualGuns.aim(t, slot, getX(), getY(), bulletSpeed, getTime());
+        double gunTurn = FastMath.normalRelativeAngle(targetAngle - getGunHeadingRadians());
+
+        setTurnGunRightRadians(gunTurn);
+
+        if (Math.abs(gunTurn) < FIRE_TOLERANCE && setFireBullet(firePower) != null) {
+            virtualGuns.fire(t.name(slot), slot, getX(), getY(), bulletSpeed, getTime());
+        }
+    }
+
+    static double determineFirePower(double distance) {
+        if (distance < TeamParameters.FIRE_NEAR_DISTANCE) return TeamParameters.MAX_FIRE_POWER;
+        if (distance < TeamParameters.FIRE_FAR_DISTANCE) return TeamParameters.MID_FIRE_POWER;
+        return TeamParameters.MIN_FIRE_POWER;
+    }
+
+    // El heartbeat el programa broadcastLocation; aquí només cal mirar la deriva, que canvia cada torn
+    private boolean positionEstimateDrifted(long now) {
+        if (!teammates.estimate(getName(), now, ownEstimate)) return true;
+        return Point2D.distance(getX(), getY(), ownEstimate.x, ownEstimate.y) > POSITION_ERROR_THRESHOLD;
+    }
+
+    private void broadcastLocation() {
+        PositionUpdate update = new PositionUpdate(getName(), getX(), getY(), getHeadingRadians(), getVelocity(), getTime());
+        // Ens apliquem la mateixa estimació que faran els companys
+        handlePositionUpdate(update);
+        outbox.broadcastLatest(getName(), codec.encode(update));
+        scheduler.schedule(POSITION_HEARTBEAT_TASK, getTime() + POSITION_HEARTBEAT_INTERVAL);
+    }
+
+    private void markTargetSeen() {
+        targetVisible = true;
+        scheduler.schedule(TARGET_EXPIRY_TASK, getTime() + RADAR_SWEEP_INTERVAL);
+    }
+
+    private void logError(String message, Exception e) {
+        System.err.println(message);
+        e.printStackTrace();
+    }
+
+    @Override
+    public void onScannedRobot(ScannedRobotEvent event) {
+        recorder.scan(event);
+        if (isTeamMember(event.getName())) return;
+
+        double absoluteBearing = getHeadingRadians() + event.getBearingRadians();
+        double enemyX = getX() + FastMath.sin(absoluteBearing) * event.getDistance();
+        double enemyY = getY() + FastMath.cos(absoluteBearing) * event.getDistance();
+
+        int slot = detectedEnemies.acquire(event.getName());
+        if (slot < 0) return;
+
+        detectedEnemies.update(slot,
+                event.getBearing(),
+                event.getDistance(),
+                event.getHeadingRadians(),
+                event.getVelocity(),
+                enemyX,
+                enemyY,
+                getTime(),
+                event.getEnergy(),
+                codec.rosterId(getName())
+        );
+        targeting.record(detectedEnemies, slot);
+        spatialIndex.move(slot, enemyX, enemyY);
+        detectEnemyFire(slot, true);
+        // La primera vegada que el veiem, es carrega el perfil desat en batalles anteriors
+        profiles.get(slot, event.getName());
+
+        // Només es comparteix si l'equip no en té ja una versió prou recent
+        if (detectedEnemies.teamTime[slot] <= getTime() - ENEMY_SHARE_INTERVAL) {
+            detectedEnemies.teamTime[slot] = getTime();
+            outbox.broadcastLatest(event.getName(),
+                    codec.encodeEnemy(TeamMessageCodec.ENEMY_DATA, detectedEnemies, slot));
+        }
+
+        if (slot == primaryTarget) {
+            markTargetSeen();
+        }
+    }
+
+    // Una caiguda d'energia entre dos escanejos seguits és un tret: l'onada surt d'on era l'enemic abans.
+    // Només es comparteix la que detectem amb escanejos propis; la resta ja l'ha enviat qui l'ha vista.
+    private void detectEnemyFire(int slot, boolean share) {
+        EnemyScanHistory scans = targeting.scans();
+        double power = scans.energyDrop(slot);
+        if (power == 0) return;
+
+        int latest = scans.index(slot, 0);
+        int previous = scans.index(slot, 1);
+        if (scans.time(latest) - scans.time(previous) > FIRE_DETECTION_GAP) return;
+
+        String name = detectedEnemies.name(slot);
+        long fireTime = scans.time(latest) - 1;
+        if (enemyWaves.add(name, scans.x(previous), scans.y(previous), fireTime, power) && share) {
+            outbox.broadcast(codec.encodeWave(name, scans.x(previous), scans.y(previous), fireTime, power));
+        }
+    }
+
+    private boolean isTeamMember(String robotName) {
+        return isTeammate(robotName) || teammateNames.contains(robotName);
+    }
+
+    @Override
+    public void onHitRobot(HitRobotEvent event) {
+        recorder.hitRobot(event);
+        // Sense back(): un seguidor ja se n'allunya el torn següent perquè el robot amb qui ha xocat pesa al risc
+        if (!isTeamMember(event.getName())) {
+            enemyEnergyChange(event.getName(), -Rules.ROBOT_HIT_DAMAGE);
+            setFire(2);
+        }
+    }
+
+    @Override
+    public void onBulletHit(BulletHitEvent event) {
+        recorder.bulletHit(event);
+        if (!isTeamMember(event.getName())) {
+            virtualGuns.bulletHit(event.getName());
+            enemyEnergyChange(event.getName(), -Rules.getBulletDamage(event.getBullet().getPower()));
+        }
+    }
+
+    @Override
+    public void onHitByBullet(HitByBulletEvent event) {
+        recorder.hitByBullet(event);
+        enemyWaves.hitByBullet(event.getName(), event.getPower(), getX(), getY());
+        enemyEnergyChange(event.getName(), Rules.getBulletHitBonus(event.getPower()));
+    }
+
+    // Perquè detectEnemyFire no confongui amb un tret el que sabem que ha canviat l'energia de l'enemic
+    private void enemyEnergyChange(String enemy, double delta) {
+        int slot = detectedEnemies.slotOf(enemy);
+        if (slot >= 0) targeting.scans().energyChange(slot, delta);
+    }
+
+    @Override
+    public void onRobotDeath(RobotDeathEvent event) {
+        recorder.robotDeath(event);
+        String deadRobot = event.getName();
+        if (isTeamMember(deadRobot)) {
+            activeMembers.remove(deadRobot);
+            radar.remove(deadRobot);
+            fireAllocator.removeTeammate(deadRobot);
+            int rosterId = codec.rosterId(deadRobot);
+            if (rosterId >= 0) {
+                spatialIndex.remove(SpatialGrid.TEAMMATE_BASE + rosterId);
+            }
+            teammates.remove(deadRobot);
+            teamHierarchy.remove(deadRobot);
+            replanMovement = true;
+
+            if (deadRobot.equals(currentCommander)) {
+                handleCommanderDeath();
+            }
+        } else {
+            forgetEnemy(deadRobot);
+        }
+    }
+
+    private void forgetEnemy(String name) {
+        int slot = detectedEnemies.remove(name);
+        if (slot >= 0) {
+            targeting.forget(slot);
+            profiles.forget(slot);
+            spatialIndex.remove(slot);
+        }
+        if (slot == primaryTarget) {
+            primaryTarget = -1;
+        }
+    }
+
+    private void evictStaleEnemies() {
+        for (int slot = 0; slot < detectedEnemies.highWater(); slot++) {
+            if (detectedEnemies.isActive(slot)) evictIfStale(slot);
+        }
+    }
+
+    // Eviction mandrosa: un enemic que fa TTL torns que ningú de l'equip veu surt de totes les estructures
+    private boolean evictIfStale(int slot) {
+        if (!detectedEnemies.isStale(slot, getTime())) return false;
+        forgetEnemy(detectedEnemies.name(slot));
+        return true;
+    }
+
+    // Cada robot rep el RobotDeathEvent i treu el mort de la cadena: el nou comandant és el següent
+    private void handleCommanderDeath() {
+        updateCommanderFromHierarchy();
+        if (isCommander) {
+            scheduleRoleSwitch(getTime());
+            announceCommander();
+        }
+    }
+
+    @Override
+    public void onCustomEvent(CustomEvent event) {
+        if (SCHEDULER_CONDITION.equals(event.getCondition().getName())) {
+            scheduler.runDue(getTime());
+        }
+    }
+
+    // Oblida el que s'ha acumulat a les rondes anteriors, com si comencés una batalla nova (ReplayHarness)
+    static void resetBattleState() {
+        profiler.reset();
+        enemyProfiles.clear();
+    }
+
+    @Override
+    public void onSkippedTurn(SkippedTurnEvent event) {
+        recorder.skippedTurn();
+        profiler.skippedTurn();
+    }
+
+    @Override
+    public void onDeath(DeathEvent event) {
+        recorder.close();
+    }
+
+    @Override
+    public void onRoundEnded(RoundEndedEvent event) {
+        recorder.close();
+        profiler.roundEnded();
+        // Un fitxer per robot: tots els companys comparteixen el directori de dades
+        String file = "profile-" + codec.rosterId(getName()) + ".txt";
+        try (PrintWriter out = new PrintWriter(new RobocodeFileWriter(getDataFile(file)))) {
+            profiler.write(out);
+            virtualGuns.write(out);
+        } catch (IOException e) {
+            logError("Failed to write turn profile", e);
+        }
+        profiles.save();
+    }
+
+    @Override
+    public void onPaint(Graphics2D g) {
+        if (isCommander) {
+            g.setColor(java.awt.Color.YELLOW);
+            int radius = 50;
+            int diameter = radius * 2;
+            int x = (int) (getX() - radius);
+            int y = (int) (getY() - radius);
+            g.drawOval(x, y, diameter, diameter);
+        }
+    }
+
+    @Override
+    public void onMessageReceived(MessageEvent event) {
+        recorder.message(event);
+        if (!(event.getMessage() instanceof byte[])) return;
+        ByteBuffer in = ByteBuffer.wrap((byte[]) event.getMessage());
+        long start = System.nanoTime();
+
+        try {
+            byte tag = in.get();
+            if (tag == TeamMessageCodec.ENVELOPE) {
+                for (int i = codec.readEnvelopeSize(in); i > 0; i--) {
+                    dispatch(in.get(), in);
+                }
+            } else {
+                dispatch(tag, in);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        profiler.record(TurnProfiler.MESSAGES, start);
+    }
+
+    private void dispatch(byte tag, ByteBuffer in) {
+        switch (tag) {
+            case TeamMessageCodec.LEADER_PROPOSAL:
+                handleLeaderProposal(codec.readLeaderProposal(in));
+                break;
+            case TeamMessageCodec.COMMANDER_ANNOUNCEMENT:
+                handleCommanderAnnouncement(codec.readCommanderAnnouncement(in));
+                break;
+            case TeamMessageCodec.POSITION_UPDATE:
+                handlePositionUpdate(codec.readPositionUpdate(in));
+                break;
+            case TeamMessageCodec.ENEMY_DATA:
+                handleEnemyData(codec.readEnemy(in, detectedEnemies));
+                break;
+            case TeamMessageCodec.ENEMY_TARGET:
+                handleEnemyTarget(codec.readEnemy(in, detectedEnemies));
+                break;
+            case TeamMessageCodec.DISTANCE_REPORT:
+                if (isCommander) handleDistanceReport(codec.readDistanceReport(in));
+                break;
+            case TeamMessageCodec.HIERARCHY_UPDATE:
+                handleHierarchyUpdate(codec.readHierarchyUpdate(in));
+                break;
+            case TeamMessageCodec.HIERARCHY_LINK:
+                handleHierarchyLink(codec.readHierarchyLink(in));
+                break;
+            case TeamMessageCodec.ENEMY_WAVE:
+                codec.readEnemyWave(in, enemyWaves);
+                break;
+            case TeamMessageCodec.NO_TARGET:
+                primaryTarget = -1;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void handleLeaderProposal(LeaderProposal proposal) {
+        if (proposal == null) return;
+        if (election.add(proposal.getRobotName(), proposal.getTicket())) {
+            teammateNames.add(proposal.getRobotName());
+            activeMembers.add(proposal.getRobotName());
+        }
+    }
+
+    private void handleCommanderAnnouncement(CommanderAnnouncement announcement) {
+        if (announcement == null) return;
+        currentCommander = announcement.getCommanderName();
+        isCommander = currentCommander.equals(getName());
+        teammates.update(currentCommander, announcement.getX(), announcement.getY(), 0, 0, getTime());
+    }
+
+    private void handlePositionUpdate(PositionUpdate update) {
+        if (update == null) return;
+        teammates.update(update.getRobotName(), update.getX(), update.getY(),
+                update.getHeadingRadians(), update.getVelocity(), update.getTime());
+        // Només els companys del roster tenen id a l'índex (aquest robot no, o es repel·liria a si mateix);
+        // les versions velles s'ignoren
+        int rosterId = update.getRobotName().equals(getName()) ? -1 : codec.rosterId(update.getRobotName());
+        if (rosterId >= 0 && teammates.lastUpdate(update.getRobotName()) == update.getTime()) {
+            spatialIndex.move(SpatialGrid.TEAMMATE_BASE + rosterId, update.getX(), update.getY());
+        }
+        if (update.getRobotName().equals(getAlivePredecessor(getName()))) {
+            replanMovement = true;
+        }
+    }
+
+    private void handleEnemyData(int slot) {
+        if (slot >= 0) {
+            targeting.record(detectedEnemies, slot);
+            spatialIndex.move(slot, detectedEnemies.x[slot], detectedEnemies.y[slot]);
+            detectEnemyFire(slot, false);
+            if (slot == primaryTarget) markTargetSeen();
+        }
+    }
+
+    private void handleEnemyTarget(int slot) {
+        if (slot < 0) return;
+        targeting.record(detectedEnemies, slot);
+        spatialIndex.move(slot, detectedEnemies.x[slot], detectedEnemies.y[slot]);
+        primaryTarget = slot;
+        markTargetSeen();
+    }
+
+    private void handleDistanceReport(DistanceReport report) {
+        if (report == null) return;
+        distancesFromCommander.put(report.getRobotName(), report.getDistance());
+    }
+
+    private void handleHierarchyUpdate(HierarchyUpdate update) {
+        if (update == null) return;
+        Map<String, String> hierarchy = update.getHierarchy();
+        // Les entrades venen en ordre de cadena: el predecessor de la primera és el comandant
+        String commander = hierarchy.isEmpty() ? currentCommander : hierarchy.values().iterator().next();
+        teamHierarchy.reset(commander, new ArrayList<>(hierarchy.keySet()));
+        replanMovement = true;
+    }
+
+    private void handleHierarchyLink(HierarchyLink link) {
+        if (link == null) return;
+        teamHierarchy.moveToFront(link.getRobotName());
+        clockwise = !clockwise;
+        scheduleRoleSwitch(getTime());
+        updateCommanderFromHierarchy();
+        replanMovement = true;
+    }
+
+    private enum FormationPhase {
+        PROPOSING,
+        COLLECTING_DISTANCES,
+        AWAITING_COMMANDER,
+        AWAITING_HIERARCHY,
+        FORMED
+    }
+
+    // Classes Internes per Missatges (es codifiquen amb TeamMessageCodec, no amb serialització Java)
+    static class LeaderProposal {
+        private final String robotName;
+        private final int ticket;
+
+        public LeaderProposal(String robotName, int ticket) {
+            this.robotName = robotName;
+            this.ticket = ticket;
+        }
+
+        public String getRobotName() {
+            return robotName;
+        }
+
+        public int getTicket() {
+            return ticket;
+        }
+    }
+
+    static class CommanderAnnouncement {
+        private final String commanderName;
+        private final double x, y;
+
+        public CommanderAnnouncement(String commanderName, double x, double y) {
+            this.commanderName = commanderName;
+            this.x = x;
+            this.y = y;
+        }
+
+        public String getCommanderName() {
+            return commanderName;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+    }
+
+    static class PositionUpdate {
+        private final String robotName;
+        private final double x, y;
+        private final double headingRadians;
+        private final double velocity;
+        private final long time;
+
+        public PositionUpdate(String robotName, double x, double y, double headingRadians, double velocity, long time) {
+            this.robotName = robotName;
+            this.x = x;
+            this.y = y;
+            this.headingRadians = headingRadians;
+            this.velocity = velocity;
+            this.time = time;
+        }
+
+        public String getRobotName() {
+            return robotName;
+        }
+
+        public double getX() {
+            return x;
+        }
+
+        public double getY() {
+            return y;
+        }
+
+        public double getHeadingRadians() {
+            return headingRadians;
+        }
+
+        public double getVelocity() {
+            return velocity;
+        }
+
+        public long getTime() {
+            return time;
+        }
+    }
+
+    static class DistanceReport {
+        private final String robotName;
+        private final double distance;
+
+        public DistanceReport(String robotName, double distance) {
+            this.robotName = robotName;
+            this.distance = distance;
+        }
+
+        public String getRobotName() {
+            return robotName;
+        }
+
+        public double getDistance() {
+            return distance;
+        }
+    }
+
+    // L'únic enllaç que canvia en una rotació: el robot passa al capdavant de la cadena com a comandant.
+    // Les morts no s'envien, cada robot rep el RobotDeathEvent i treu el mort de la seva cadena.
+    static class HierarchyLink {
+        private final String robotName;
+
+        public HierarchyLink(String robotName) {
+            this.robotName = robotName;
+        }
+
+        public String getRobotName() {
+            return robotName;
+        }
+    }
+
+    static class HierarchyUpdate {
+        private final Map<String, String> hierarchy;
+
+        public HierarchyUpdate(Map<String, String> hierarchy) {
+            this.hierarchy = hierarchy;
+        }
+
+        public Map<String, String> getHierarchy() {
+            return hierarchy;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package josepjiahla;
+
+import java.util.*;
+
+// Cadena doblement enllaçada comandant -> seguidors amb només robots vius.
+// Treure un robot o rotar el comandament és O(1) i només canvia els enllaços veïns.
+final class FollowerChain {
+    private final Map<String, Node> nodes = new HashMap<>();
+    private Node head, tail;
+
+    void reset(String commander, List<String> followers) {
+        nodes.clear();
+        head = tail = null;
+        append(commander);
+        for (String follower : followers) {
+            append(follower);
+        }
+    }
+
+    boolean contains(String robot) {
+        return nodes.containsKey(robot);
+    }
+
+    String commander() {
+        return head == null ? null : head.name;
+    }
+
+    String last() {
+        return tail == null ? null : tail.name;
+    }
+
+    String predecessor(String robot) {
+        Node node = nodes.get(robot);
+        return node == null || node.prev == null ? null : node.prev.name;
+    }
+
+    boolean remove(String robot) {
+        Node node = nodes.remove(robot);
+        if (node == null) return false;
+        unlink(node);
+        return true;
+    }
+
+    void moveToFront(String robot) {
+        Node node = nodes.get(robot);
+        if (node == null || node == head) return;
+        unlink(node);
+        node.next = head;
+        head.prev = node;
+        head = node;
+    }
+
+    // Format de HierarchyUpdate: seguidor -> predecessor, en ordre de cadena
+    Map<String, String> toHierarchy() {
+        Map<String, String> hierarchy = new LinkedHashMap<>();
+        for (Node node = head == null ? null : head.next; node != null; node = node.next) {
+            hierarchy.put(node.name, node.prev.name);
+        }
+        return hierarchy;
+    }
+
+    private void append(String robot) {
+        if (robot == null || nodes.containsKey(robot)) return;
+        Node node = new Node(robot);
+        nodes.put(robot, node);
+        if (tail == null) {
+            head = tail = node;
+        } else {
+            tail.next = node;
+            node.prev = tail;
+            tail = node;
+        }
+    }
+
+    private void unlink(Node node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
+        }
+        node.prev = node.next = null;
+    }
+
+    private static final class Node {
+        private final String name;
+        private Node prev, next;
+
+        private Node(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package josepjiahla;
+
+// Estadístiques de tir contra un enemic: histograma de guess factors i encerts virtuals per model.
+// Formen part de l'EnemyProfile; són arrays primitius de mida fixa, així que la memòria no creix amb les rondes.
+final class GunStats {
+    static final int BINS = 31;
+    static final int MIDDLE_BIN = BINS / 2;
+
+    final int[] guessFactors = new int[BINS];
+    final int[] modelHits = new int[VirtualGuns.MODELS];
+    int waves;
+    int shotsFired;
+    int shotsHit;
+
+    // Model amb més encerts virtuals; -1 mentre no hi ha dades
+    int bestModel() {
+        int best = -1;
+        int bestHits = 0;
+        for (int model = 0; model < modelHits.length; model++) {
+            if (modelHits[model] > bestHits) {
+                bestHits = modelHits[model];
+                best = model;
+            }
+        }
+        return best;
+    }
+
+    // Guess factor [-1, 1] de la cubeta més visitada
+    double bestGuessFactor() {
+        int best = MIDDLE_BIN;
+        for (int bin = 0; bin < BINS; bin++) {
+            if (guessFactors[bin] > guessFactors[best]) {
+                best = bin;
+            }
+        }
+        return (double) (best - MIDDLE_BIN) / MIDDLE_BIN;
+    }
+
+    static int bin(double guessFactor) {
+        return (int) Math.round(Math.max(-1, Math.min(1, guessFactor)) * MIDDLE_BIN) + MIDDLE_BIN;
+    }
+}
@@ -0,0 +1,60 @@
+package josepjiahla;
+
+// Elecció del comandant en una sola ronda de missatges: cada robot difon (nom, tiquet) i tots trien el
+// mateix guanyador, el tiquet més alt amb l'empat resolt pel nom més petit. Les propostes es guarden en
+// arrays paral·lels, sense cadenes "nom#número" per tornar a parsejar.
+// Amb llavor (election.seed), el tiquet de cada robot depèn només de la llavor, el nom i la ronda: cada
+// robot calcula tots els tiquets de l'equip sense esperar cap missatge i la batalla és reproduïble.
+final class LeaderElection {
+    private static final int CAPACITY = Byte.MAX_VALUE; // com el roster de TeamMessageCodec
+
+    private final String[] names = new String[CAPACITY];
+    private final int[] tickets = new int[CAPACITY];
+    private int size;
+
+    // Tiquet no negatiu; seed 0 vol dir aleatori
+    static int ticket(String name, int round, long seed) {
+        if (seed == 0) return (int) (Math.random() * Integer.MAX_VALUE);
+        // Finalitzador de SplitMix64: String.hashCode és el mateix a totes les JVM
+        long z = seed + name.hashCode() * 0x9E3779B97F4A7C15L + round * 0xD1B54A32D192ED03L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (int) (z >>> 33);
+    }
+
+    // false si el robot ja havia proposat (es queda el primer tiquet) o no hi cap
+    boolean add(String name, int ticket) {
+        if (indexOf(name) >= 0 || size == CAPACITY) return false;
+        names[size] = name;
+        tickets[size] = ticket;
+        size++;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String name(int i) {
+        return names[i];
+    }
+
+    String winner() {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            if (best < 0 || tickets[i] > tickets[best]
+                    || tickets[i] == tickets[best] && names[i].compareTo(names[best]) < 0) {
+                best = i;
+            }
+        }
+        return best < 0 ? null : names[best];
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) return i;
+        }
+        return -1;
+    }
+}
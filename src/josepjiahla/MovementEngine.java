@@ -0,0 +1,118 @@
+package josepjiahla;
+
+import java.awt.geom.Point2D;
+
+// Moviment de mínim risc dels seguidors (i del comandant quan esquiva): avalua uns quants punts al voltant del robot i tria
+// el de menys risc. El risc suma la repulsió dels enemics, la dels companys massa propers,
+// mantenir-se dins la banda de seguiment del predecessor, les parets (camp precalculat en una graella)
+// i les cubetes perilloses de les onades enemigues que són a punt d'arribar.
+// Els companys surten de l'índex espacial, que el robot posa a les posicions estimades abans de triar.
+final class MovementEngine {
+    private static final int CANDIDATES = 16;
+    private static final double MOVE_RADIUS = 60;
+    private static final double WALL_MARGIN = 18;
+    private static final int CELL = 16;
+    private static final double ENEMY_WEIGHT = 10000;
+    private static final double TEAMMATE_WEIGHT = 2500;
+    private static final double WALL_WEIGHT = 1000;
+    private static final double WAVE_WEIGHT = 5;
+    private static final double TEAMMATE_RADIUS = 300; // més lluny la repulsió d'un company és negligible
+
+    private static final double[] CANDIDATE_SIN = new double[CANDIDATES];
+    private static final double[] CANDIDATE_COS = new double[CANDIDATES];
+
+    static {
+        for (int i = 0; i < CANDIDATES; i++) {
+            double angle = 2 * Math.PI * i / CANDIDATES;
+            CANDIDATE_SIN[i] = Math.sin(angle);
+            CANDIDATE_COS[i] = Math.cos(angle);
+        }
+    }
+
+    private final EnemyWaves waves;
+    private final Point2D.Double destination = new Point2D.Double();
+    private final int[] nearby = new int[Byte.MAX_VALUE];
+    private double fieldWidth, fieldHeight;
+    private int columns, rows;
+    private double[] wallRisk = new double[0];
+
+    MovementEngine(EnemyWaves waves) {
+        this.waves = waves;
+    }
+
+    void setBounds(double width, double height) {
+        fieldWidth = width;
+        fieldHeight = height;
+        columns = (int) Math.ceil(width / CELL);
+        rows = (int) Math.ceil(height / CELL);
+        wallRisk = new double[columns * rows];
+        for (int column = 0; column < columns; column++) {
+            for (int row = 0; row < rows; row++) {
+                double x = (column + 0.5) * CELL;
+                double y = (row + 0.5) * CELL;
+                wallRisk[row * columns + column] = WALL_WEIGHT * (inverseSquare(x) + inverseSquare(width - x)
+                        + inverseSquare(y) + inverseSquare(height - y));
+            }
+        }
+    }
+
+    // Punt de menys risc (inclòs quedar-se on és) mantenint-se a distance del predecessor anchor,
+    // un id de company de grid (-1: sense)
+    Point2D.Double choose(double x, double y, int anchor, double distance, SpatialGrid grid,
+                          EnemyTable enemies, long now) {
+        destination.setLocation(x, y);
+        double bestRisk = risk(x, y, anchor, distance, grid, enemies, now);
+        for (int i = 0; i < CANDIDATES; i++) {
+            double candidateX = x + CANDIDATE_SIN[i] * MOVE_RADIUS;
+            double candidateY = y + CANDIDATE_COS[i] * MOVE_RADIUS;
+            if (candidateX < WALL_MARGIN || candidateX > fieldWidth - WALL_MARGIN
+                    || candidateY < WALL_MARGIN || candidateY > fieldHeight - WALL_MARGIN) continue;
+
+            double risk = risk(candidateX, candidateY, anchor, distance, grid, enemies, now);
+            if (risk < bestRisk) {
+                bestRisk = risk;
+                destination.setLocation(candidateX, candidateY);
+            }
+        }
+        return destination;
+    }
+
+    private double risk(double x, double y, int anchor, double distance, SpatialGrid grid,
+                        EnemyTable enemies, long now) {
+        double risk = wallRisk[cell(x, y)] + WAVE_WEIGHT * waves.danger(x, y);
+
+        for (int slot = 0; slot < enemies.highWater(); slot++) {
+            if (!enemies.isActive(slot)) continue;
+            risk += ENEMY_WEIGHT * (1 + enemies.energy[slot] / 100) * enemies.confidence(slot, now)
+                    / distanceSq(x, y, enemies.x[slot], enemies.y[slot]);
+        }
+
+        int count = grid.within(x, y, TEAMMATE_RADIUS, SpatialGrid.TEAMMATE, nearby);
+        for (int i = 0; i < count; i++) {
+            if (nearby[i] == anchor) continue;
+            risk += TEAMMATE_WEIGHT / distanceSq(x, y, grid.x(nearby[i]), grid.y(nearby[i]));
+        }
+        if (anchor >= 0) {
+            double error = (Point2D.distance(x, y, grid.x(anchor), grid.y(anchor)) - distance) / distance;
+            risk += error * error;
+        }
+        return risk;
+    }
+
+    private int cell(double x, double y) {
+        int column = Math.max(0, Math.min(columns - 1, (int) (x / CELL)));
+        int row = Math.max(0, Math.min(rows - 1, (int) (y / CELL)));
+        return row * columns + column;
+    }
+
+    private static double distanceSq(double x1, double y1, double x2, double y2) {
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return Math.max(dx * dx + dy * dy, 1);
+    }
+
+    private static double inverseSquare(double distance) {
+        double clear = Math.max(distance - WALL_MARGIN, 1);
+        return 1 / (clear * clear);
+    }
+}
@@ -0,0 +1,52 @@
+package josepjiahla;
+
+import java.awt.geom.Point2D;
+
+// Busca a l'historial la finestra de (velocitat, gir) més semblant als últims torns
+// i reprodueix el que l'enemic va fer just després
+final class PatternMatchingPredictor implements TargetPredictor {
+    private static final int WINDOW = 7;
+    private static final int MAX_CANDIDATES = 400; // acota el cost a WINDOW * MAX_CANDIDATES comparacions
+    private static final int MIN_HISTORY = WINDOW + 30;
+    private static final double TURN_WEIGHT = 100; // el gir es mesura en radians, la velocitat en píxels
+    private static final double MAX_MATCH_ERROR = 2.0;
+
+    private final TargetingEngine engine;
+
+    PatternMatchingPredictor(TargetingEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public boolean predict(EnemyTable enemies, int slot, double shooterX, double shooterY, double bulletSpeed,
+                           long now, Point2D.Double aimPoint) {
+        EnemyMotionHistory history = engine.history();
+        int size = history.size(slot);
+        if (size < MIN_HISTORY) return false;
+
+        int bestAgo = -1;
+        double bestError = MAX_MATCH_ERROR;
+        int lastCandidate = Math.min(size - WINDOW, MAX_CANDIDATES);
+
+        // Candidat a "ago": la finestra [ago, ago + WINDOW) comparada amb [0, WINDOW); cal almenys un torn després
+        for (int ago = 1; ago <= lastCandidate; ago++) {
+            double error = 0;
+            for (int j = 0; j < WINDOW && error < bestError; j++) {
+                int recent = history.index(slot, j);
+                int past = history.index(slot, ago + j);
+                double dv = history.velocity(recent) - history.velocity(past);
+                double dt = history.turnRate(recent) - history.turnRate(past);
+                error += dv * dv + TURN_WEIGHT * dt * dt;
+            }
+            if (error < bestError) {
+                bestError = error;
+                bestAgo = ago;
+            }
+        }
+        if (bestAgo < 0) return false;
+
+        return engine.intercept(slot, bestAgo - 1, enemies.x[slot], enemies.y[slot], enemies.headingRadians[slot],
+                enemies.velocity[slot], history.lastTurnRate(slot), now - enemies.time[slot],
+                shooterX, shooterY, bulletSpeed, aimPoint);
+    }
+}
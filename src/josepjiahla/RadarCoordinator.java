@@ -0,0 +1,70 @@
+package josepjiahla;
+
+import java.awt.geom.Point2D;
+import java.util.*;
+
+// Repartiment del radar entre companys: cada enemic el manté fresc el company viu més proper.
+// Tots fan el mateix càlcul amb les posicions compartides (també la pròpia estimació, no la real),
+// així que surt la mateixa assignació a tot arreu sense enviar cap missatge.
+final class RadarCoordinator {
+    private final List<String> members = new ArrayList<>(); // ordenats per nom: desempat determinista
+    private final Point2D.Double position = new Point2D.Double();
+    private double[] memberX = new double[0];
+    private double[] memberY = new double[0];
+
+    void setMembers(Collection<String> names) {
+        members.clear();
+        members.addAll(names);
+        Collections.sort(members);
+        memberX = new double[members.size()];
+        memberY = new double[members.size()];
+    }
+
+    // Quan mor un company els seus enemics passen al següent més proper
+    void remove(String name) {
+        members.remove(name);
+    }
+
+    boolean isActive() {
+        return members.size() > 1;
+    }
+
+    // De tots els enemics assignats a self, el de dada més antiga; -1 si no n'hi ha cap
+    int nextTarget(String self, EnemyTable enemies, TeammateTracker teammates, long now) {
+        int known = 0;
+        int selfIndex = -1;
+        for (String member : members) {
+            if (!teammates.estimate(member, now, position)) continue;
+            if (member.equals(self)) selfIndex = known;
+            memberX[known] = position.x;
+            memberY[known] = position.y;
+            known++;
+        }
+        if (selfIndex < 0) return -1;
+
+        int best = -1;
+        for (int slot = 0; slot < enemies.highWater(); slot++) {
+            if (!enemies.isActive(slot)) continue;
+            if (owner(enemies.x[slot], enemies.y[slot], known) != selfIndex) continue;
+            if (best < 0 || enemies.time[slot] < enemies.time[best]) {
+                best = slot;
+            }
+        }
+        return best;
+    }
+
+    private int owner(double x, double y, int known) {
+        int owner = 0;
+        double bestDistanceSq = Double.MAX_VALUE;
+        for (int i = 0; i < known; i++) {
+            double dx = memberX[i] - x;
+            double dy = memberY[i] - y;
+            double distanceSq = dx * dx + dy * dy;
+            if (distanceSq < bestDistanceSq) {
+                bestDistanceSq = distanceSq;
+                owner = i;
+            }
+        }
+        return owner;
+    }
+}
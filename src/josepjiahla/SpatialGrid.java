@@ -0,0 +1,164 @@
+package josepjiahla;
+
+import java.util.*;
+
+// Índex espacial de graella uniforme sobre el camp. Els enemics hi són pel seu slot i els companys
+// per CAPACITY + id de roster; cada cel·la és una llista doblement enllaçada en arrays, així que moure
+// una entrada és O(1) i les consultes (el més proper, k més propers, radi) no creen objectes.
+final class SpatialGrid {
+    static final int ENEMY = 0;
+    static final int TEAMMATE = 1;
+    static final int TEAMMATE_BASE = EnemyTable.CAPACITY;
+    private static final int ENTRIES = TEAMMATE_BASE + Byte.MAX_VALUE;
+    private static final double CELL = 100;
+    private static final int NONE = -1;
+
+    private final double[] x = new double[ENTRIES];
+    private final double[] y = new double[ENTRIES];
+    private final int[] cellOf = new int[ENTRIES];
+    private final int[] next = new int[ENTRIES];
+    private final int[] previous = new int[ENTRIES];
+    private final double[] candidateDistanceSq = new double[ENTRIES];
+    private final int[] single = new int[1];
+    private int[] head = new int[0];
+    private int columns, rows;
+
+    SpatialGrid() {
+        Arrays.fill(cellOf, NONE);
+    }
+
+    void setBounds(double width, double height) {
+        columns = Math.max(1, (int) Math.ceil(width / CELL));
+        rows = Math.max(1, (int) Math.ceil(height / CELL));
+        head = new int[columns * rows];
+        Arrays.fill(head, NONE);
+        Arrays.fill(cellOf, NONE);
+    }
+
+    void move(int id, double newX, double newY) {
+        x[id] = newX;
+        y[id] = newY;
+        int cell = row(newY) * columns + column(newX);
+        if (cellOf[id] == cell) return;
+
+        unlink(id);
+        cellOf[id] = cell;
+        previous[id] = NONE;
+        next[id] = head[cell];
+        if (head[cell] != NONE) previous[head[cell]] = id;
+        head[cell] = id;
+    }
+
+    void remove(int id) {
+        unlink(id);
+        cellOf[id] = NONE;
+    }
+
+    boolean contains(int id) {
+        return cellOf[id] != NONE;
+    }
+
+    double x(int id) {
+        return x[id];
+    }
+
+    double y(int id) {
+        return y[id];
+    }
+
+    // L'entrada de tipus kind més propera a (px, py), o -1 si no n'hi ha cap
+    int nearest(double px, double py, int kind) {
+        return nearest(px, py, kind, 1, single) == 0 ? NONE : single[0];
+    }
+
+    // Omple out amb les k entrades més properes, de la més propera a la més llunyana; retorna quantes
+    int nearest(double px, double py, int kind, int k, int[] out) {
+        k = Math.min(k, Math.min(out.length, ENTRIES));
+        if (k <= 0) return 0;
+        int found = 0;
+        int centerColumn = column(px);
+        int centerRow = row(py);
+        int maxRing = Math.max(columns, rows);
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Cap cel·la d'aquest anell és més a prop de (ring - 1) cel·les
+            double reach = Math.max(0, ring - 1) * CELL;
+            if (found == k && reach * reach > candidateDistanceSq[k - 1]) break;
+
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                if (row < 0 || row >= rows) continue;
+                boolean edge = row == centerRow - ring || row == centerRow + ring;
+                int step = edge ? 1 : Math.max(1, 2 * ring);
+                for (int column = centerColumn - ring; column <= centerColumn + ring; column += step) {
+                    if (column < 0 || column >= columns) continue;
+                    for (int id = head[row * columns + column]; id != NONE; id = next[id]) {
+                        if (kindOf(id) != kind) continue;
+                        found = insert(id, distanceSq(id, px, py), out, found, k);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // Omple out amb les entrades de tipus kind a distància <= radius (sense ordre); retorna quantes
+    int within(double px, double py, double radius, int kind, int[] out) {
+        int found = 0;
+        double radiusSq = radius * radius;
+        int lastRow = row(py + radius);
+        int lastColumn = column(px + radius);
+        for (int row = row(py - radius); row <= lastRow; row++) {
+            for (int column = column(px - radius); column <= lastColumn; column++) {
+                for (int id = head[row * columns + column]; id != NONE && found < out.length; id = next[id]) {
+                    if (kindOf(id) == kind && distanceSq(id, px, py) <= radiusSq) {
+                        out[found++] = id;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    // Inserció ordenada en els k millors candidats
+    private int insert(int id, double distanceSq, int[] out, int found, int k) {
+        if (found == k && distanceSq >= candidateDistanceSq[k - 1]) return found;
+        int i = found == k ? k - 1 : found++;
+        while (i > 0 && candidateDistanceSq[i - 1] > distanceSq) {
+            candidateDistanceSq[i] = candidateDistanceSq[i - 1];
+            out[i] = out[i - 1];
+            i--;
+        }
+        candidateDistanceSq[i] = distanceSq;
+        out[i] = id;
+        return found;
+    }
+
+    private void unlink(int id) {
+        int cell = cellOf[id];
+        if (cell == NONE) return;
+        if (previous[id] != NONE) {
+            next[previous[id]] = next[id];
+        } else {
+            head[cell] = next[id];
+        }
+        if (next[id] != NONE) previous[next[id]] = previous[id];
+    }
+
+    private static int kindOf(int id) {
+        return id < TEAMMATE_BASE ? ENEMY : TEAMMATE;
+    }
+
+    private double distanceSq(int id, double px, double py) {
+        double dx = x[id] - px;
+        double dy = y[id] - py;
+        return dx * dx + dy * dy;
+    }
+
+    private int column(double px) {
+        return Math.max(0, Math.min(columns - 1, (int) (px / CELL)));
+    }
+
+    private int row(double py) {
+        return Math.max(0, Math.min(rows - 1, (int) (py / CELL)));
+    }
+}
@@ -0,0 +1,10 @@
+package josepjiahla;
+
+import java.awt.geom.Point2D;
+
+// Predictor de punt d'impacte per al TargetingEngine
+interface TargetPredictor {
+    // Escriu a aimPoint on serà l'enemic quan hi arribi la bala; false si no té prou informació
+    boolean predict(EnemyTable enemies, int slot, double shooterX, double shooterY, double bulletSpeed,
+                    long now, Point2D.Double aimPoint);
+}
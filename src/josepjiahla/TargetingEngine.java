@@ -0,0 +1,78 @@
+package josepjiahla;
+
+import java.awt.geom.Point2D;
+
+// Historial dels enemics i predictors de tir (pattern matching i intercepció circular) que fa servir VirtualGuns.
+// Totes les cerques estan acotades per no passar-nos del temps de torn.
+final class TargetingEngine {
+    static final int MAX_FLIGHT_TICKS = 150;
+    private static final double WALL_MARGIN = 18;
+
+    private final EnemyMotionHistory history = new EnemyMotionHistory();
+    private final EnemyScanHistory scans = new EnemyScanHistory();
+    private final TargetPredictor patternMatching = new PatternMatchingPredictor(this);
+    private final TargetPredictor circular = new CircularPredictor(this);
+    private double fieldWidth, fieldHeight;
+
+    void setBounds(double width, double height) {
+        fieldWidth = width;
+        fieldHeight = height;
+        scans.setBounds(width, height);
+    }
+
+    EnemyMotionHistory history() {
+        return history;
+    }
+
+    EnemyScanHistory scans() {
+        return scans;
+    }
+
+    void record(EnemyTable enemies, int slot) {
+        history.record(slot, enemies.headingRadians[slot], enemies.velocity[slot], enemies.time[slot]);
+        scans.record(enemies, slot);
+    }
+
+    void forget(int slot) {
+        history.reset(slot);
+        scans.reset(slot);
+    }
+
+    // Els models que VirtualGuns compara; tots comparteixen l'historial i els límits del camp d'aquí
+    TargetPredictor patternMatching() {
+        return patternMatching;
+    }
+
+    TargetPredictor circular() {
+        return circular;
+    }
+
+    // Avança l'enemic torn a torn des de l'últim escaneig fins que la bala (disparada el torn següent)
+    // recorre la distància fins al punt previst. Reprodueix l'historial a partir de replayAgo
+    // (-1 per no fer-ho) i, quan s'acaba, manté velocitat i gir constants.
+    boolean intercept(int slot, int replayAgo, double x, double y, double heading, double velocity,
+                      double turnRate, long ticksSinceScan, double shooterX, double shooterY,
+                      double bulletSpeed, Point2D.Double aimPoint) {
+        long launchTick = ticksSinceScan + 1;
+        for (int tick = 1; tick <= launchTick + MAX_FLIGHT_TICKS; tick++) {
+            if (replayAgo >= 0) {
+                int index = history.index(slot, replayAgo--);
+                velocity = history.velocity(index);
+                turnRate = history.turnRate(index);
+            }
+            heading += turnRate;
+            x = clamp(x + FastMath.sin(heading) * velocity, WALL_MARGIN, fieldWidth - WALL_MARGIN);
+            y = clamp(y + FastMath.cos(heading) * velocity, WALL_MARGIN, fieldHeight - WALL_MARGIN);
+
+            if (tick > launchTick && bulletSpeed * (tick - launchTick) >= Point2D.distance(shooterX, shooterY, x, y)) {
+                aimPoint.setLocation(x, y);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(Math.min(value, max), min);
+    }
+}
@@ -0,0 +1,273 @@
+package josepjiahla;
+
+import josepjiahla.FollowTheLeaderRobot.CommanderAnnouncement;
+import josepjiahla.FollowTheLeaderRobot.DistanceReport;
+import josepjiahla.FollowTheLeaderRobot.HierarchyLink;
+import josepjiahla.FollowTheLeaderRobot.HierarchyUpdate;
+import josepjiahla.FollowTheLeaderRobot.LeaderProposal;
+import josepjiahla.FollowTheLeaderRobot.PositionUpdate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Codificació binària dels missatges d'equip: un byte d'etiqueta de tipus i camps de mida fixa.
+// Els noms dels companys viatgen com a id d'un byte; el roster surt dels noms que dona el motor, iguals
+// a tots els robots. Un id desconegut invalida només el registre que el conté, no tot el sobre.
+final class TeamMessageCodec {
+    static final byte LEADER_PROPOSAL = 1;
+    static final byte COMMANDER_ANNOUNCEMENT = 2;
+    static final byte POSITION_UPDATE = 3;
+    static final byte DISTANCE_REPORT = 4;
+    static final byte ENEMY_DATA = 5;
+    static final byte ENEMY_TARGET = 6;
+    static final byte HIERARCHY_UPDATE = 7;
+    static final byte ENVELOPE = 8;
+    static final byte HIERARCHY_LINK = 9;
+    static final byte ENEMY_WAVE = 10;
+    static final byte NO_TARGET = 11;
+
+    private static final int MAX_MESSAGE_SIZE = 1024;
+    private static final byte INLINE_NAME = -1;
+
+    private final ByteBuffer out = ByteBuffer.allocate(MAX_MESSAGE_SIZE);
+    private final List<String> roster = new ArrayList<>();
+    private final Map<String, Byte> rosterIds = new HashMap<>();
+
+    // Tots els robots han de cridar-ho amb el mateix conjunt: l'id és l'ordre alfabètic
+    void setRoster(Collection<String> names) {
+        roster.clear();
+        rosterIds.clear();
+        roster.addAll(new TreeSet<>(names));
+        for (int i = 0; i < roster.size() && i < Byte.MAX_VALUE; i++) {
+            rosterIds.put(roster.get(i), (byte) i);
+        }
+    }
+
+    byte[] encode(LeaderProposal proposal) {
+        begin(LEADER_PROPOSAL);
+        writeName(proposal.getRobotName());
+        out.putInt(proposal.getTicket());
+        return finish();
+    }
+
+    byte[] encode(CommanderAnnouncement announcement) {
+        begin(COMMANDER_ANNOUNCEMENT);
+        writeName(announcement.getCommanderName());
+        out.putFloat((float) announcement.getX());
+        out.putFloat((float) announcement.getY());
+        return finish();
+    }
+
+    byte[] encode(PositionUpdate update) {
+        begin(POSITION_UPDATE);
+        writeName(update.getRobotName());
+        out.putFloat((float) update.getX());
+        out.putFloat((float) update.getY());
+        out.putFloat((float) update.getHeadingRadians());
+        out.putFloat((float) update.getVelocity());
+        out.putInt((int) update.getTime());
+        return finish();
+    }
+
+    byte[] encode(DistanceReport report) {
+        begin(DISTANCE_REPORT);
+        writeName(report.getRobotName());
+        out.putFloat((float) report.getDistance());
+        return finish();
+    }
+
+    // Onada enemiga detectada per caiguda d'energia: origen, torn del tret i potència
+    byte[] encodeWave(String enemy, double x, double y, long fireTime, double power) {
+        begin(ENEMY_WAVE);
+        writeName(enemy);
+        out.putFloat((float) x);
+        out.putFloat((float) y);
+        out.putInt((int) fireTime);
+        out.putFloat((float) power);
+        return finish();
+    }
+
+    // El comandant retira l'objectiu a un tirador: només l'etiqueta
+    byte[] encodeNoTarget() {
+        begin(NO_TARGET);
+        return finish();
+    }
+
+    // ENEMY_DATA i ENEMY_TARGET comparteixen el format: un slot de la taula d'enemics
+    byte[] encodeEnemy(byte tag, EnemyTable enemies, int slot) {
+        begin(tag);
+        writeName(enemies.name(slot));
+        out.put((byte) enemies.source[slot]);
+        out.putFloat((float) enemies.bearing[slot]);
+        out.putFloat((float) enemies.distance[slot]);
+        out.putFloat((float) enemies.headingRadians[slot]);
+        out.putFloat((float) enemies.velocity[slot]);
+        out.putFloat((float) enemies.x[slot]);
+        out.putFloat((float) enemies.y[slot]);
+        out.putInt((int) enemies.time[slot]);
+        out.putFloat((float) enemies.energy[slot]);
+        return finish();
+    }
+
+    byte[] encode(HierarchyUpdate update) {
+        begin(HIERARCHY_UPDATE);
+        Map<String, String> hierarchy = update.getHierarchy();
+        out.put((byte) hierarchy.size());
+        for (Map.Entry<String, String> entry : hierarchy.entrySet()) {
+            writeName(entry.getKey());
+            writeName(entry.getValue());
+        }
+        return finish();
+    }
+
+    byte[] encode(HierarchyLink link) {
+        begin(HIERARCHY_LINK);
+        writeName(link.getRobotName());
+        return finish();
+    }
+
+    // Un sobre és l'etiqueta, el nombre de registres i els registres ja codificats un darrere l'altre
+    byte[] encodeEnvelope(Collection<byte[]> records) {
+        int size = 3;
+        for (byte[] record : records) {
+            size += record.length;
+        }
+        ByteBuffer envelope = ByteBuffer.allocate(size);
+        envelope.put(ENVELOPE);
+        envelope.putShort((short) records.size());
+        for (byte[] record : records) {
+            envelope.put(record);
+        }
+        return envelope.array();
+    }
+
+    int readEnvelopeSize(ByteBuffer in) {
+        return in.getShort() & 0xFFFF;
+    }
+
+    // Els read* retornen null (o -1, false) si el registre porta un id de nom fora del roster
+    LeaderProposal readLeaderProposal(ByteBuffer in) {
+        String name = readName(in);
+        int ticket = in.getInt();
+        return name == null ? null : new LeaderProposal(name, ticket);
+    }
+
+    CommanderAnnouncement readCommanderAnnouncement(ByteBuffer in) {
+        String name = readName(in);
+        double x = in.getFloat();
+        double y = in.getFloat();
+        return name == null ? null : new CommanderAnnouncement(name, x, y);
+    }
+
+    PositionUpdate readPositionUpdate(ByteBuffer in) {
+        String name = readName(in);
+        double x = in.getFloat();
+        double y = in.getFloat();
+        double headingRadians = in.getFloat();
+        double velocity = in.getFloat();
+        long time = in.getInt();
+        return name == null ? null : new PositionUpdate(name, x, y, headingRadians, velocity, time);
+    }
+
+    DistanceReport readDistanceReport(ByteBuffer in) {
+        String name = readName(in);
+        double distance = in.getFloat();
+        return name == null ? null : new DistanceReport(name, distance);
+    }
+
+    // Afegeix l'onada directament al pool, sense objecte intermedi
+    boolean readEnemyWave(ByteBuffer in, EnemyWaves waves) {
+        String name = readName(in);
+        double x = in.getFloat();
+        double y = in.getFloat();
+        long fireTime = in.getInt();
+        double power = in.getFloat();
+        return name != null && waves.add(name, x, y, fireTime, power);
+    }
+
+    // Fusiona l'enemic al seu slot si la versió rebuda és més nova; retorna -1 si la taula és plena
+    // o el nom és desconegut
+    int readEnemy(ByteBuffer in, EnemyTable enemies) {
+        String name = readName(in);
+        int source = in.get();
+        double bearing = in.getFloat();
+        double distance = in.getFloat();
+        double headingRadians = in.getFloat();
+        double velocity = in.getFloat();
+        double x = in.getFloat();
+        double y = in.getFloat();
+        long time = in.getInt();
+        double energy = in.getFloat();
+        if (name == null) return -1;
+
+        int slot = enemies.acquire(name);
+        if (slot < 0) return -1;
+
+        if (enemies.isNewer(slot, time, source)) {
+            enemies.update(slot, bearing, distance, headingRadians, velocity, x, y, time, energy, source);
+        }
+        enemies.teamTime[slot] = Math.max(enemies.teamTime[slot], time);
+        return slot;
+    }
+
+    HierarchyUpdate readHierarchyUpdate(ByteBuffer in) {
+        int size = in.get() & 0xFF;
+        Map<String, String> hierarchy = new LinkedHashMap<>();
+        boolean complete = true;
+        for (int i = 0; i < size; i++) {
+            String robot = readName(in);
+            String predecessor = readName(in);
+            complete &= robot != null && predecessor != null;
+            hierarchy.put(robot, predecessor);
+        }
+        // Una cadena amb un forat no es pot aplicar a mitges
+        return complete ? new HierarchyUpdate(hierarchy) : null;
+    }
+
+    HierarchyLink readHierarchyLink(ByteBuffer in) {
+        String robot = readName(in);
+        return robot == null ? null : new HierarchyLink(robot);
+    }
+
+    // -1 si el nom no és al roster (o encara no s'ha acordat)
+    int rosterId(String name) {
+        Byte id = rosterIds.get(name);
+        return id == null ? -1 : id;
+    }
+
+    private void begin(byte tag) {
+        out.clear();
+        out.put(tag);
+    }
+
+    private byte[] finish() {
+        byte[] bytes = new byte[out.position()];
+        out.flip();
+        out.get(bytes);
+        return bytes;
+    }
+
+    private void writeName(String name) {
+        Byte id = rosterIds.get(name);
+        if (id != null) {
+            out.put(id);
+            return;
+        }
+        byte[] utf = name.getBytes(StandardCharsets.UTF_8);
+        out.put(INLINE_NAME);
+        out.put((byte) utf.length);
+        out.put(utf);
+    }
+
+    // null si l'id no és del roster; el nom en línia sempre es llegeix sencer perquè el buffer quedi alineat
+    private String readName(ByteBuffer in) {
+        byte id = in.get();
+        if (id != INLINE_NAME) {
+            return id >= 0 && id < roster.size() ? roster.get(id) : null;
+        }
+        byte[] utf = new byte[in.get() & 0xFF];
+        in.get(utf);
+        return new String(utf, StandardCharsets.UTF_8);
+    }
+}
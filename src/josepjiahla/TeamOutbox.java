@@ -0,0 +1,68 @@
+package josepjiahla;
+
+import robocode.TeamRobot;
+
+import java.io.IOException;
+import java.util.*;
+
+// Acumula els missatges d'un torn i els envia com un únic sobre per destinatari abans d'execute().
+// Els registres amb clau (posició per robot, EnemyData per enemic) substitueixen els anteriors del mateix torn.
+final class TeamOutbox {
+    private final TeamMessageCodec codec;
+    private final Envelope broadcast = new Envelope();
+    private final Map<String, Envelope> direct = new LinkedHashMap<>();
+
+    TeamOutbox(TeamMessageCodec codec) {
+        this.codec = codec;
+    }
+
+    void broadcast(byte[] record) {
+        broadcast.records.add(record);
+    }
+
+    void broadcastLatest(String key, byte[] record) {
+        broadcast.latest.put(key, record);
+    }
+
+    void send(String recipient, byte[] record) {
+        envelopeFor(recipient).records.add(record);
+    }
+
+    void flush(TeamRobot robot) throws IOException {
+        byte[] message = broadcast.drain(codec);
+        if (message != null) {
+            robot.broadcastMessage(message);
+        }
+        for (Map.Entry<String, Envelope> entry : direct.entrySet()) {
+            message = entry.getValue().drain(codec);
+            if (message != null) {
+                robot.sendMessage(entry.getKey(), message);
+            }
+        }
+    }
+
+    private Envelope envelopeFor(String recipient) {
+        Envelope envelope = direct.get(recipient);
+        if (envelope == null) {
+            envelope = new Envelope();
+            direct.put(recipient, envelope);
+        }
+        return envelope;
+    }
+
+    private static final class Envelope {
+        private final List<byte[]> records = new ArrayList<>();
+        // Les claus són noms de robot: un company i un enemic mai comparteixen nom
+        private final Map<String, byte[]> latest = new LinkedHashMap<>();
+
+        private byte[] drain(TeamMessageCodec codec) {
+            records.addAll(latest.values());
+            latest.clear();
+            if (records.isEmpty()) return null;
+
+            byte[] message = records.size() == 1 ? records.get(0) : codec.encodeEnvelope(records);
+            records.clear();
+            return message;
+        }
+    }
+}
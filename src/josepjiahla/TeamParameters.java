@@ -0,0 +1,79 @@
+package josepjiahla;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+// Paràmetres ajustables de l'equip, llegits un cop per càrrega de classe de FollowTheLeader.properties
+// (al costat de FollowTheLeader.team dins el jar). Una clau absent o mal escrita es queda amb el valor
+// per defecte, així que el robot es comporta igual sense el fitxer. ParameterTuner (tools/) en prova variants.
+final class TeamParameters {
+    static final String RESOURCE = "FollowTheLeader.properties";
+
+    private static final Properties values = load();
+
+    static final double FOLLOW_DISTANCE = number("follow.distance", 100);
+    static final long ROLE_SWITCH_INTERVAL = integer("role.switch.interval", 300);
+    static final double SAFETY_MARGIN = number("safety.margin", 0.10);
+    static final double POSITION_ERROR_THRESHOLD = number("position.error.threshold", 10.0);
+    static final long POSITION_HEARTBEAT_INTERVAL = integer("position.heartbeat.interval", 30);
+
+    // Llindars de determineFirePower: MAX per sota de NEAR, MID fins a FAR i MIN més enllà
+    static final double FIRE_NEAR_DISTANCE = number("fire.near.distance", 200);
+    static final double FIRE_FAR_DISTANCE = number("fire.far.distance", 400);
+    static final double MAX_FIRE_POWER = power("fire.power.max", 3.0);
+    static final double MID_FIRE_POWER = power("fire.power.mid", 2.5);
+    static final double MIN_FIRE_POWER = power("fire.power.min", 1.0);
+
+    // Llavor de LeaderElection: 0 és aleatori, qualsevol altre valor fa l'elecció reproduïble
+    static final long ELECTION_SEED = seed("election.seed");
+
+    // EventRecorder: rondes enregistrades des del principi de la batalla (0 = cap) i bytes comprimits per log
+    static final long RECORD_ROUNDS = Math.round(number("record.rounds", 0));
+    static final long RECORD_BYTES = Math.round(number("record.bytes", 40000));
+
+    private TeamParameters() {
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        try (InputStream in = TeamParameters.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) properties.load(in);
+        } catch (IOException | SecurityException e) {
+            System.err.println("Failed to load " + RESOURCE + ", using defaults");
+        }
+        return properties;
+    }
+
+    private static double number(String key, double fallback) {
+        String value = values.getProperty(key);
+        if (value == null) return fallback;
+        try {
+            double parsed = Double.parseDouble(value.trim());
+            if (parsed >= 0 && !Double.isInfinite(parsed)) return parsed;
+        } catch (NumberFormatException e) {
+            // cau al missatge de sota
+        }
+        System.err.println("Ignoring invalid parameter " + key + "=" + value);
+        return fallback;
+    }
+
+    private static long seed(String key) {
+        String value = values.getProperty(key);
+        if (value == null || value.trim().isEmpty()) return 0;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid parameter " + key + "=" + value);
+            return 0;
+        }
+    }
+
+    private static long integer(String key, long fallback) {
+        return Math.max(1, Math.round(number(key, fallback)));
+    }
+
+    private static double power(String key, double fallback) {
+        return Math.max(0.1, Math.min(3.0, number(key, fallback)));
+    }
+}
@@ -0,0 +1,71 @@
+package josepjiahla;
+
+import java.awt.geom.Point2D;
+import java.util.*;
+
+// Últim estat conegut de cada company i estimació per dead reckoning (rumb i velocitat) entre actualitzacions.
+// L'emissor fa servir la mateixa estimació sobre si mateix per decidir quan cal tornar a emetre.
+final class TeammateTracker {
+    // Un robot de Robocode frena en pocs torns: no té sentit extrapolar més enllà
+    private static final long MAX_EXTRAPOLATION_TICKS = 20;
+    // Tres heartbeats perduts: el company ja no és on crèiem (o ja no hi és) i se n'oblida l'estat
+    private static final long TTL = 3 * TeamParameters.POSITION_HEARTBEAT_INTERVAL;
+
+    private final Map<String, State> states = new HashMap<>();
+    private double minX, minY, maxX, maxY;
+
+    void setBounds(double width, double height) {
+        minX = 18;
+        minY = 18;
+        maxX = width - 18;
+        maxY = height - 18;
+    }
+
+    void update(String name, double x, double y, double headingRadians, double velocity, long time) {
+        State state = states.get(name);
+        if (state == null) {
+            state = new State();
+            states.put(name, state);
+        } else if (time < state.time) {
+            return;
+        }
+        state.x = x;
+        state.y = y;
+        state.headingRadians = headingRadians;
+        state.velocity = velocity;
+        state.time = time;
+    }
+
+    boolean knows(String name) {
+        return states.containsKey(name);
+    }
+
+    void remove(String name) {
+        states.remove(name);
+    }
+
+    // Eviction mandrosa: un estat caducat s'esborra en consultar-lo
+    boolean estimate(String name, long now, Point2D.Double into) {
+        State state = states.get(name);
+        if (state == null) return false;
+        if (now - state.time > TTL) {
+            states.remove(name);
+            return false;
+        }
+
+        double travel = state.velocity * Math.min(Math.max(now - state.time, 0), MAX_EXTRAPOLATION_TICKS);
+        into.x = Math.max(minX, Math.min(maxX, state.x + FastMath.sin(state.headingRadians) * travel));
+        into.y = Math.max(minY, Math.min(maxY, state.y + FastMath.cos(state.headingRadians) * travel));
+        return true;
+    }
+
+    long lastUpdate(String name) {
+        State state = states.get(name);
+        return state == null ? Long.MIN_VALUE : state.time;
+    }
+
+    private static final class State {
+        private double x, y, headingRadians, velocity;
+        private long time;
+    }
+}
@@ -0,0 +1,64 @@
+package josepjiahla;
+
+// Roda de temporitzadors per torns: cada tasca (un id fix) té com a molt una execució programada,
+// marcada amb un bit a la cubeta tick % WHEEL_SIZE. Comprovar i executar només mira les cubetes
+// dels torns que han passat des de l'última vegada, i les tasques de més d'una volta esperen a la seva.
+final class TickScheduler {
+    static final int MAX_TASKS = 64; // un bit per tasca a cada cubeta
+    private static final int WHEEL_SIZE = 64; // potència de dos
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final long[] buckets = new long[WHEEL_SIZE];
+    private final long[] dueTick = new long[MAX_TASKS];
+    private final boolean[] scheduled = new boolean[MAX_TASKS];
+    private final Runnable[] tasks = new Runnable[MAX_TASKS];
+    private long cursor = 0; // primer torn encara no processat
+
+    void register(int task, Runnable action) {
+        tasks[task] = action;
+    }
+
+    // Reprograma la tasca si ja ho estava; un torn passat vol dir "al proper processament"
+    void schedule(int task, long tick) {
+        cancel(task);
+        tick = Math.max(tick, cursor);
+        dueTick[task] = tick;
+        scheduled[task] = true;
+        buckets[(int) (tick & MASK)] |= 1L << task;
+    }
+
+    void cancel(int task) {
+        if (!scheduled[task]) return;
+        scheduled[task] = false;
+        buckets[(int) (dueTick[task] & MASK)] &= ~(1L << task);
+    }
+
+    boolean isScheduled(int task) {
+        return scheduled[task];
+    }
+
+    boolean hasDue(long now) {
+        long steps = Math.min(now - cursor + 1, WHEEL_SIZE);
+        for (long tick = cursor; tick < cursor + steps; tick++) {
+            for (long bits = buckets[(int) (tick & MASK)]; bits != 0; bits &= bits - 1) {
+                if (dueTick[Long.numberOfTrailingZeros(bits)] <= now) return true;
+            }
+        }
+        return false;
+    }
+
+    void runDue(long now) {
+        long steps = Math.min(now - cursor + 1, WHEEL_SIZE);
+        for (long tick = cursor; tick < cursor + steps; tick++) {
+            int bucket = (int) (tick & MASK);
+            for (long bits = buckets[bucket]; bits != 0; bits &= bits - 1) {
+                int task = Long.numberOfTrailingZeros(bits);
+                // Una tasca anterior la pot haver reprogramada o cancel·lada
+                if (!scheduled[task] || dueTick[task] > now || (buckets[bucket] & (1L << task)) == 0) continue;
+                cancel(task);
+                tasks[task].run();
+            }
+        }
+        cursor = Math.max(cursor, now + 1);
+    }
+}
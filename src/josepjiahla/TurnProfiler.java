@@ -0,0 +1,76 @@
+package josepjiahla;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+// Temps per etapa del torn en un histograma preassignat de cubetes logarítmiques (cubeta i = [2^i, 2^(i+1)) ns)
+final class TurnProfiler {
+    static final int MOVEMENT = 0;
+    static final int TARGET_SELECTION = 1;
+    static final int RADAR = 2;
+    static final int GUN = 3;
+    static final int MESSAGES = 4;
+    static final int BROADCAST = 5;
+    private static final String[] STAGE_NAMES = {"movement", "target-selection", "radar", "gun", "messages", "broadcast"};
+    private static final int STAGES = STAGE_NAMES.length;
+    private static final int BUCKETS = 40;
+
+    private final long[] histogram = new long[STAGES * BUCKETS];
+    private final long[] samples = new long[STAGES];
+    private final long[] totalNanos = new long[STAGES];
+    private final long[] maxNanos = new long[STAGES];
+    private long skippedTurns = 0;
+    private int rounds = 0;
+
+    // Retorna l'instant final perquè es pugui encadenar amb la següent etapa
+    long record(int stage, long startNanos) {
+        long now = System.nanoTime();
+        long elapsed = now - startNanos;
+        int bucket = elapsed <= 1 ? 0 : Math.min(63 - Long.numberOfLeadingZeros(elapsed), BUCKETS - 1);
+        histogram[stage * BUCKETS + bucket]++;
+        samples[stage]++;
+        totalNanos[stage] += elapsed;
+        maxNanos[stage] = Math.max(maxNanos[stage], elapsed);
+        return now;
+    }
+
+    void skippedTurn() {
+        skippedTurns++;
+    }
+
+    void roundEnded() {
+        rounds++;
+    }
+
+    void reset() {
+        Arrays.fill(histogram, 0);
+        Arrays.fill(samples, 0);
+        Arrays.fill(totalNanos, 0);
+        Arrays.fill(maxNanos, 0);
+        skippedTurns = 0;
+        rounds = 0;
+    }
+
+    void write(PrintWriter out) {
+        out.printf("rounds=%d skippedTurns=%d%n", rounds, skippedTurns);
+        out.println("stage samples meanNs p50Ns p99Ns maxNs");
+        for (int stage = 0; stage < STAGES; stage++) {
+            long mean = samples[stage] == 0 ? 0 : totalNanos[stage] / samples[stage];
+            out.printf("%s %d %d %d %d %d%n", STAGE_NAMES[stage], samples[stage], mean,
+                    percentile(stage, 0.50), percentile(stage, 0.99), maxNanos[stage]);
+        }
+    }
+
+    // Límit superior de la cubeta on cau el percentil
+    private long percentile(int stage, double fraction) {
+        long threshold = (long) Math.ceil(samples[stage] * fraction);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += histogram[stage * BUCKETS + bucket];
+            if (seen >= threshold && seen > 0) {
+                return 1L << (bucket + 1);
+            }
+        }
+        return 0;
+    }
+}
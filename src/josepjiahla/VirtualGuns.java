@@ -0,0 +1,149 @@
+package josepjiahla;
+
+import robocode.Rules;
+
+import java.awt.geom.Point2D;
+import java.io.PrintWriter;
+import java.util.*;
+
+// Bales virtuals: cada tret real llança una onada amb l'angle que hauria fet servir cada model.
+// Quan l'onada arriba a l'enemic s'apunta quins models l'haurien encertat i el guess factor real,
+// i el tret següent fa servir el model que més encerta contra aquell enemic.
+// Les onades viuen en un pool preassignat en columnes; si s'omple, la nova onada es descarta.
+final class VirtualGuns {
+    static final int PATTERN_MATCHING = 0;
+    static final int CIRCULAR = 1;
+    static final int GUESS_FACTOR = 2;
+    static final int MODELS = 3;
+    private static final String[] MODEL_NAMES = {"pattern-matching", "circular", "guess-factor"};
+    private static final int POOL_SIZE = 64;
+    private static final double ROBOT_HALF_WIDTH = 18;
+
+    private final EnemyProfiles profiles;
+    private final TargetPredictor patternMatching;
+    private final TargetPredictor circular;
+    private final Point2D.Double point = new Point2D.Double();
+
+    // Angles calculats a l'últim aim(), que són els que s'emporta l'onada si es dispara
+    private final double[] angles = new double[MODELS];
+    private double aimBearing, aimEscapeAngle;
+    private int aimDirection = 1;
+    private final int[] lastDirection = new int[EnemyTable.CAPACITY];
+
+    private final boolean[] active = new boolean[POOL_SIZE];
+    private final String[] waveEnemy = new String[POOL_SIZE];
+    private final int[] waveSlot = new int[POOL_SIZE];
+    private final double[] originX = new double[POOL_SIZE];
+    private final double[] originY = new double[POOL_SIZE];
+    private final double[] speed = new double[POOL_SIZE];
+    private final long[] fireTime = new long[POOL_SIZE];
+    private final double[] bearing = new double[POOL_SIZE];
+    private final double[] escapeAngle = new double[POOL_SIZE];
+    private final int[] direction = new int[POOL_SIZE];
+    private final double[] modelAngles = new double[POOL_SIZE * MODELS];
+
+    VirtualGuns(TargetingEngine targeting, EnemyProfiles profiles) {
+        this.profiles = profiles;
+        this.patternMatching = targeting.patternMatching();
+        this.circular = targeting.circular();
+        Arrays.fill(lastDirection, 1);
+    }
+
+    // Angle absolut de tir (radians) segons el millor model contra aquest enemic
+    double aim(EnemyTable enemies, int slot, double shooterX, double shooterY, double bulletSpeed, long now) {
+        double x = enemies.x[slot];
+        double y = enemies.y[slot];
+        aimBearing = FastMath.atan2(x - shooterX, y - shooterY);
+        aimEscapeAngle = Math.asin(Rules.MAX_VELOCITY / bulletSpeed);
+        double lateralVelocity = enemies.velocity[slot] * FastMath.sin(enemies.headingRadians[slot] - aimBearing);
+        if (lateralVelocity != 0) {
+            lastDirection[slot] = lateralVelocity > 0 ? 1 : -1;
+        }
+        aimDirection = lastDirection[slot];
+
+        angles[PATTERN_MATCHING] = patternMatching.predict(enemies, slot, shooterX, shooterY, bulletSpeed, now, point)
+                ? FastMath.atan2(point.x - shooterX, point.y - shooterY) : Double.NaN;
+        angles[CIRCULAR] = circular.predict(enemies, slot, shooterX, shooterY, bulletSpeed, now, point)
+                ? FastMath.atan2(point.x - shooterX, point.y - shooterY) : aimBearing;
+        GunStats enemyStats = profiles.get(slot, enemies.name(slot)).gun;
+        angles[GUESS_FACTOR] = aimBearing + aimDirection * enemyStats.bestGuessFactor() * aimEscapeAngle;
+
+        int model = enemyStats.bestModel();
+        if (model < 0 || Double.isNaN(angles[model])) {
+            // Sense estadístiques, l'ordre de sempre: pattern matching i, si no pot, circular
+            model = Double.isNaN(angles[PATTERN_MATCHING]) ? CIRCULAR : PATTERN_MATCHING;
+        }
+        return angles[model];
+    }
+
+    // Llança l'onada del tret que s'acaba de disparar amb els angles de l'últim aim()
+    void fire(String enemy, int slot, double shooterX, double shooterY, double bulletSpeed, long now) {
+        EnemyProfile profile = profiles.get(slot, enemy);
+        profile.gun.shotsFired++;
+        profile.dirty = true;
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (active[i]) continue;
+            active[i] = true;
+            waveEnemy[i] = enemy;
+            waveSlot[i] = slot;
+            originX[i] = shooterX;
+            originY[i] = shooterY;
+            speed[i] = bulletSpeed;
+            fireTime[i] = now;
+            bearing[i] = aimBearing;
+            escapeAngle[i] = aimEscapeAngle;
+            direction[i] = aimDirection;
+            System.arraycopy(angles, 0, modelAngles, i * MODELS, MODELS);
+            return;
+        }
+    }
+
+    void bulletHit(String enemy) {
+        EnemyProfile profile = profiles.get(enemy);
+        profile.gun.shotsHit++;
+        profile.dirty = true;
+    }
+
+    // Un cop per torn: avança totes les onades i puntua les que ja han arribat a l'enemic
+    void advance(EnemyTable enemies, long now) {
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (!active[i]) continue;
+            int slot = waveSlot[i];
+            long flight = now - fireTime[i];
+            if (!waveEnemy[i].equals(enemies.name(slot)) || flight > TargetingEngine.MAX_FLIGHT_TICKS) {
+                active[i] = false;
+                continue;
+            }
+
+            double distance = Point2D.distance(originX[i], originY[i], enemies.x[slot], enemies.y[slot]);
+            if (speed[i] * flight < distance - ROBOT_HALF_WIDTH) continue;
+
+            active[i] = false;
+            EnemyProfile profile = profiles.get(slot, waveEnemy[i]);
+            profile.dirty = true;
+            GunStats enemyStats = profile.gun;
+            double actual = FastMath.atan2(enemies.x[slot] - originX[i], enemies.y[slot] - originY[i]);
+            double offset = FastMath.normalRelativeAngle(actual - bearing[i]);
+            enemyStats.guessFactors[GunStats.bin(direction[i] * offset / escapeAngle[i])]++;
+            enemyStats.waves++;
+
+            double tolerance = Math.atan(ROBOT_HALF_WIDTH / Math.max(distance, ROBOT_HALF_WIDTH));
+            for (int model = 0; model < MODELS; model++) {
+                double angle = modelAngles[i * MODELS + model];
+                if (!Double.isNaN(angle) && Math.abs(FastMath.normalRelativeAngle(actual - angle)) <= tolerance) {
+                    enemyStats.modelHits[model]++;
+                }
+            }
+        }
+    }
+
+    void write(PrintWriter out) {
+        out.println("enemy waves shotsFired shotsHit bestModel");
+        for (Map.Entry<String, EnemyProfile> entry : profiles.entries()) {
+            GunStats enemyStats = entry.getValue().gun;
+            int model = enemyStats.bestModel();
+            out.printf("%s %d %d %d %s%n", entry.getKey(), enemyStats.waves, enemyStats.shotsFired,
+                    enemyStats.shotsHit, model < 0 ? "-" : MODEL_NAMES[model]);
+        }
+    }
+}
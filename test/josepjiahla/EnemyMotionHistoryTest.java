@@ -0,0 +1,88 @@
+package josepjiahla;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EnemyMotionHistoryTest {
+    private static final int SLOT = 3;
+
+    private EnemyMotionHistory history;
+
+    @Before
+    public void setUp() {
+        history = new EnemyMotionHistory();
+    }
+
+    @Test
+    public void fillsGapsOneEntryPerTick() {
+        history.record(SLOT, 0, 8, 10);
+        history.record(SLOT, 0.3, 6, 13);
+        assertEquals(4, history.size(SLOT));
+        for (int ago = 0; ago < 3; ago++) {
+            int index = history.index(SLOT, ago);
+            assertEquals(6, history.velocity(index), 0);
+            assertEquals(0.1, history.turnRate(index), 1e-6);
+        }
+    }
+
+    // Un forat massa llarg trenca la continuïtat: es torna a començar
+    @Test
+    public void longGapRestartsHistory() {
+        history.record(SLOT, 0, 8, 10);
+        history.record(SLOT, 0.1, 8, 11);
+        history.record(SLOT, 0.2, 8, 100);
+        assertEquals(1, history.size(SLOT));
+        assertEquals(0, history.lastTurnRate(SLOT), 0);
+    }
+
+    @Test
+    public void ringWrapsKeepingLatestTicks() {
+        int total = EnemyMotionHistory.LENGTH + 7;
+        for (int t = 0; t < total; t++) {
+            history.record(SLOT, 0, t % 8, t);
+        }
+        assertEquals(EnemyMotionHistory.LENGTH, history.size(SLOT));
+        assertEquals((total - 1) % 8, history.velocity(history.index(SLOT, 0)), 0);
+        assertEquals(7 % 8, history.velocity(history.index(SLOT, EnemyMotionHistory.LENGTH - 1)), 0);
+    }
+
+    @Test
+    public void averageTurnRateCoversLastWindowTicks() {
+        history.record(SLOT, 0, 8, 0);
+        history.record(SLOT, 0.1, 8, 1);
+        history.record(SLOT, 0.3, 8, 2);
+        history.record(SLOT, 0.6, 8, 3);
+        assertEquals(0.3, history.averageTurnRate(SLOT, 1), 1e-6);
+        assertEquals((0.3 + 0.2) / 2, history.averageTurnRate(SLOT, 2), 1e-6);
+        assertEquals((0.3 + 0.2 + 0.1) / 3, history.averageTurnRate(SLOT, 3), 1e-6);
+    }
+
+    // Amb menys entrades que la finestra es fa la mitjana de les que hi ha
+    @Test
+    public void averageTurnRateWithShortHistory() {
+        assertEquals(0, history.averageTurnRate(SLOT, 3), 0);
+        history.record(SLOT, 0, 8, 0);
+        history.record(SLOT, -0.2, 8, 1);
+        assertEquals(-0.1, history.averageTurnRate(SLOT, 5), 1e-6);
+    }
+
+    @Test
+    public void averageTurnRateAcrossWrapAround() {
+        for (int t = 0; t < EnemyMotionHistory.LENGTH + 2; t++) {
+            history.record(SLOT, t * 0.05, 8, t);
+        }
+        assertEquals(0.05, history.averageTurnRate(SLOT, 4), 1e-5);
+    }
+
+    @Test
+    public void slotsAreIndependent() {
+        history.record(SLOT, 0, 8, 0);
+        history.record(SLOT, 0.2, 8, 1);
+        history.record(SLOT + 1, 0, 4, 0);
+        assertEquals(2, history.size(SLOT));
+        assertEquals(1, history.size(SLOT + 1));
+        assertEquals(0.2, history.lastTurnRate(SLOT), 1e-6);
+    }
+}
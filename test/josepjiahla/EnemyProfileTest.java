@@ -0,0 +1,96 @@
+package josepjiahla;
+
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class EnemyProfileTest {
+    private static EnemyProfile sample() {
+        EnemyProfile profile = new EnemyProfile();
+        profile.gun.waves = 40;
+        profile.gun.shotsFired = 25;
+        profile.gun.shotsHit = 7;
+        profile.gun.guessFactors[GunStats.MIDDLE_BIN] = 12;
+        profile.gun.guessFactors[GunStats.BINS - 1] = 3;
+        profile.gun.modelHits[VirtualGuns.CIRCULAR] = 9;
+        return profile;
+    }
+
+    private static byte[] bytes(EnemyProfile profile) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            profile.write(out);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static boolean read(EnemyProfile profile, byte[] data) throws IOException {
+        return profile.read(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    @Test
+    public void roundTripKeepsGunStats() throws IOException {
+        EnemyProfile read = new EnemyProfile();
+        assertTrue(read(read, bytes(sample())));
+        assertEquals(40, read.gun.waves);
+        assertEquals(25, read.gun.shotsFired);
+        assertEquals(7, read.gun.shotsHit);
+        assertArrayEquals(sample().gun.guessFactors, read.gun.guessFactors);
+        assertArrayEquals(sample().gun.modelHits, read.gun.modelHits);
+        assertEquals(VirtualGuns.CIRCULAR, read.gun.bestModel());
+    }
+
+    @Test
+    public void wrongMagicIsRejected() throws IOException {
+        byte[] data = bytes(sample());
+        data[0] ^= 0x01;
+        assertFalse(read(new EnemyProfile(), data));
+    }
+
+    // Els fitxers d'una versió anterior s'ignoren i es torna a aprendre
+    @Test
+    public void otherVersionIsRejected() throws IOException {
+        byte[] data = bytes(sample());
+        data[4] = EnemyProfile.VERSION - 1;
+        assertFalse(read(new EnemyProfile(), data));
+    }
+
+    @Test
+    public void histogramOfOtherSizeIsRejected() throws IOException {
+        byte[] data = bytes(sample());
+        data[4 + 1 + 3 * 4] = GunStats.BINS + 1;
+        assertFalse(read(new EnemyProfile(), data));
+    }
+
+    // Un fitxer tallat (quota esgotada a mig escriure) no es pot confondre amb un perfil vàlid
+    @Test
+    public void truncatedFileFailsToRead() throws IOException {
+        byte[] data = bytes(sample());
+        try {
+            read(new EnemyProfile(), Arrays.copyOf(data, data.length - 3));
+            fail("truncated profile was read");
+        } catch (EOFException expected) {
+            // EnemyProfiles ho captura i torna a començar amb un perfil buit
+        }
+    }
+
+    @Test
+    public void addAndCopyMergeSlices() {
+        EnemyProfile total = new EnemyProfile();
+        total.add(sample(), 1);
+        total.add(sample(), 1);
+        assertEquals(80, total.gun.waves);
+        assertEquals(24, total.gun.guessFactors[GunStats.MIDDLE_BIN]);
+        total.add(sample(), -1);
+        assertEquals(40, total.gun.waves);
+
+        EnemyProfile copy = new EnemyProfile();
+        copy.copyFrom(total);
+        assertArrayEquals(total.gun.guessFactors, copy.gun.guessFactors);
+        assertArrayEquals(total.gun.modelHits, copy.gun.modelHits);
+        assertEquals(total.gun.shotsHit, copy.gun.shotsHit);
+    }
+}
@@ -0,0 +1,136 @@
+package josepjiahla;
+
+import org.junit.Before;
+import org.junit.Test;
+import robocode.Rules;
+
+import static org.junit.Assert.*;
+
+public class EnemyScanHistoryTest {
+    private EnemyTable enemies;
+    private EnemyScanHistory scans;
+    private int slot;
+
+    @Before
+    public void setUp() {
+        enemies = new EnemyTable();
+        scans = new EnemyScanHistory();
+        scans.setBounds(800, 600);
+        slot = enemies.acquire("sample.Walls (1)");
+    }
+
+    private void scan(double x, double y, double velocity, double energy, long time) {
+        enemies.update(slot, 0, 100, 0, velocity, x, y, time, energy, 0);
+        scans.record(enemies, slot);
+    }
+
+    @Test
+    public void dropInBulletRangeIsAShot() {
+        scan(400, 300, 8, 100, 10);
+        scan(400, 308, 8, 98, 11);
+        assertEquals(2, scans.energyDrop(slot), 1e-4);
+    }
+
+    @Test
+    public void noDropWithASingleScan() {
+        scan(400, 300, 8, 100, 10);
+        assertEquals(0, scans.energyDrop(slot), 0);
+    }
+
+    @Test
+    public void dropOutsideBulletRangeIsIgnored() {
+        scan(400, 300, 8, 100, 10);
+        scan(400, 308, 8, 95, 11);
+        assertEquals(0, scans.energyDrop(slot), 0);
+    }
+
+    // Contra la paret a tota velocitat perd 3 d'energia sense disparar
+    @Test
+    public void wallHitIsNotAShot() {
+        scan(400, 588, 8, 100, 10);
+        scan(400, 582, 0, 100 - Rules.getWallHitDamage(8), 11);
+        assertEquals(0, scans.energyDrop(slot), 0);
+    }
+
+    @Test
+    public void shotOnAWallHitTickIsStillDetected() {
+        scan(400, 588, 8, 100, 10);
+        scan(400, 582, 0, 100 - Rules.getWallHitDamage(8) - 1.5, 11);
+        assertEquals(1.5, scans.energyDrop(slot), 1e-4);
+    }
+
+    // Aturar-se lluny de les parets no és un xoc
+    @Test
+    public void stopAwayFromWallsIsNotDiscounted() {
+        scan(400, 300, 8, 100, 10);
+        scan(400, 300, 0, 98, 11);
+        assertEquals(2, scans.energyDrop(slot), 1e-4);
+    }
+
+    @Test
+    public void ourBulletDamageIsNotAShot() {
+        scan(400, 300, 8, 100, 10);
+        scans.energyChange(slot, -Rules.getBulletDamage(0.5));
+        scan(400, 308, 8, 100 - Rules.getBulletDamage(0.5), 11);
+        assertEquals(0, scans.energyDrop(slot), 0);
+    }
+
+    @Test
+    public void ramDamageIsNotAShot() {
+        scan(400, 300, 8, 100, 10);
+        scans.energyChange(slot, -Rules.ROBOT_HIT_DAMAGE);
+        scan(400, 300, 0, 100 - Rules.ROBOT_HIT_DAMAGE, 11);
+        assertEquals(0, scans.energyDrop(slot), 0);
+    }
+
+    // Dispara 2 i el mateix torn recupera 3 * 1 perquè una bala seva ens ha encertat
+    @Test
+    public void shotHiddenByBulletRefundIsDetected() {
+        scan(400, 300, 8, 50, 10);
+        scans.energyChange(slot, Rules.getBulletHitBonus(1));
+        scan(400, 308, 8, 50 - 2 + Rules.getBulletHitBonus(1), 11);
+        assertEquals(2, scans.energyDrop(slot), 1e-4);
+    }
+
+    // Els canvis coneguts només valen per a l'escaneig següent
+    @Test
+    public void knownChangeAppliesToOneScanOnly() {
+        scan(400, 300, 8, 100, 10);
+        scans.energyChange(slot, -1);
+        scan(400, 308, 8, 99, 11);
+        scan(400, 316, 8, 98, 12);
+        assertEquals(1, scans.energyDrop(slot), 1e-4);
+    }
+
+    // Després de més de LENGTH escanejos només queden els últims, del més nou (ago 0) al més vell
+    @Test
+    public void ringWrapsKeepingLatestScans() {
+        int total = EnemyScanHistory.LENGTH + 5;
+        for (int t = 0; t < total; t++) {
+            scan(t, 300, 8, 100, t);
+        }
+        assertEquals(EnemyScanHistory.LENGTH, scans.size(slot));
+        assertEquals(total - 1, scans.time(scans.index(slot, 0)));
+        assertEquals(total - 1, scans.x(scans.index(slot, 0)), 0);
+        assertEquals(5, scans.time(scans.index(slot, EnemyScanHistory.LENGTH - 1)));
+    }
+
+    @Test
+    public void repeatedScanOfSameTickIsIgnored() {
+        scan(400, 300, 8, 100, 10);
+        scan(410, 300, 8, 98, 10);
+        assertEquals(1, scans.size(slot));
+        assertEquals(400, scans.x(scans.index(slot, 0)), 0);
+    }
+
+    @Test
+    public void resetEmptiesSlot() {
+        scan(400, 300, 8, 100, 10);
+        scans.energyChange(slot, -1);
+        scans.reset(slot);
+        assertEquals(0, scans.size(slot));
+        scan(400, 300, 8, 100, 20);
+        scan(400, 308, 8, 99, 21);
+        assertEquals(1, scans.energyDrop(slot), 1e-4);
+    }
+}
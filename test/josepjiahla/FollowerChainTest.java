@@ -0,0 +1,94 @@
+package josepjiahla;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class FollowerChainTest {
+    private FollowerChain chain;
+
+    @Before
+    public void setUp() {
+        chain = new FollowerChain();
+        chain.reset("A", Arrays.asList("B", "C", "D"));
+    }
+
+    private static Map<String, String> hierarchy(String... followerPredecessor) {
+        Map<String, String> expected = new LinkedHashMap<>();
+        for (int i = 0; i < followerPredecessor.length; i += 2) {
+            expected.put(followerPredecessor[i], followerPredecessor[i + 1]);
+        }
+        return expected;
+    }
+
+    @Test
+    public void resetBuildsChainInOrder() {
+        assertEquals("A", chain.commander());
+        assertEquals("D", chain.last());
+        assertNull(chain.predecessor("A"));
+        assertEquals("B", chain.predecessor("C"));
+        assertEquals(hierarchy("B", "A", "C", "B", "D", "C"), chain.toHierarchy());
+    }
+
+    @Test
+    public void resetIgnoresDuplicates() {
+        chain.reset("A", Arrays.asList("B", "A", "B"));
+        assertEquals(hierarchy("B", "A"), chain.toHierarchy());
+    }
+
+    @Test
+    public void removeMiddleLinksNeighbours() {
+        assertTrue(chain.remove("B"));
+        assertFalse(chain.contains("B"));
+        assertEquals("A", chain.predecessor("C"));
+        assertEquals(hierarchy("C", "A", "D", "C"), chain.toHierarchy());
+    }
+
+    @Test
+    public void removeCommanderPromotesNext() {
+        chain.remove("A");
+        assertEquals("B", chain.commander());
+        assertNull(chain.predecessor("B"));
+    }
+
+    @Test
+    public void removeLastUpdatesTail() {
+        chain.remove("D");
+        assertEquals("C", chain.last());
+    }
+
+    @Test
+    public void removeUnknownReturnsFalse() {
+        assertFalse(chain.remove("X"));
+        assertNull(chain.predecessor("X"));
+    }
+
+    @Test
+    public void removeEveryoneLeavesEmptyChain() {
+        for (String robot : Arrays.asList("A", "B", "C", "D")) {
+            chain.remove(robot);
+        }
+        assertNull(chain.commander());
+        assertNull(chain.last());
+        assertTrue(chain.toHierarchy().isEmpty());
+    }
+
+    @Test
+    public void moveToFrontMakesCommander() {
+        chain.moveToFront("C");
+        assertEquals("C", chain.commander());
+        assertEquals(hierarchy("A", "C", "B", "A", "D", "B"), chain.toHierarchy());
+    }
+
+    @Test
+    public void moveToFrontOfLastUpdatesTail() {
+        chain.moveToFront("D");
+        assertEquals("C", chain.last());
+        assertEquals("D", chain.commander());
+    }
+}
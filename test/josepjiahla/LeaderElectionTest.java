@@ -0,0 +1,89 @@
+package josepjiahla;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LeaderElectionTest {
+    private static final List<String> TEAM = Arrays.asList("josepjiahla.FollowTheLeaderRobot (1)",
+            "josepjiahla.FollowTheLeaderRobot (2)", "josepjiahla.FollowTheLeaderRobot (3)",
+            "josepjiahla.FollowTheLeaderRobot (4)", "josepjiahla.FollowTheLeaderRobot (5)");
+    private static final long SEED = 20240917L;
+
+    private LeaderElection election;
+
+    @Before
+    public void setUp() {
+        election = new LeaderElection();
+    }
+
+    // Cada robot fa la seva elecció pel seu compte: amb la mateixa llavor tots han de triar el mateix
+    private static String elect(long seed, int round) {
+        LeaderElection election = new LeaderElection();
+        for (String robot : TEAM) {
+            election.add(robot, LeaderElection.ticket(robot, round, seed));
+        }
+        return election.winner();
+    }
+
+    @Test
+    public void seededTicketIsDeterministicAndNonNegative() {
+        for (String robot : TEAM) {
+            int ticket = LeaderElection.ticket(robot, 3, SEED);
+            assertEquals(ticket, LeaderElection.ticket(robot, 3, SEED));
+            assertTrue(ticket >= 0);
+        }
+    }
+
+    @Test
+    public void sameSeedElectsSameCommander() {
+        String commander = elect(SEED, 0);
+        assertNotNull(commander);
+        assertEquals(commander, elect(SEED, 0));
+    }
+
+    @Test
+    public void winnerDoesNotDependOnArrivalOrder() {
+        String commander = elect(SEED, 1);
+        for (int i = TEAM.size() - 1; i >= 0; i--) {
+            election.add(TEAM.get(i), LeaderElection.ticket(TEAM.get(i), 1, SEED));
+        }
+        assertEquals(commander, election.winner());
+    }
+
+    @Test
+    public void highestTicketWins() {
+        election.add("A", 10);
+        election.add("B", 30);
+        election.add("C", 20);
+        assertEquals("B", election.winner());
+    }
+
+    @Test
+    public void tieBreaksBySmallestName() {
+        election.add("C", 50);
+        election.add("A", 50);
+        election.add("B", 50);
+        election.add("D", 10);
+        assertEquals("A", election.winner());
+    }
+
+    // Una proposta repetida no canvia el tiquet del primer missatge
+    @Test
+    public void duplicateProposalKeepsFirstTicket() {
+        assertTrue(election.add("A", 10));
+        assertTrue(election.add("B", 20));
+        assertFalse(election.add("A", 99));
+        assertEquals(2, election.size());
+        assertEquals("B", election.winner());
+    }
+
+    @Test
+    public void emptyElectionHasNoWinner() {
+        assertNull(election.winner());
+    }
+}
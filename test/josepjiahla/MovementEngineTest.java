@@ -0,0 +1,56 @@
+package josepjiahla;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+
+import static org.junit.Assert.*;
+
+public class MovementEngineTest {
+    private static final int ANCHOR = SpatialGrid.TEAMMATE_BASE;
+
+    private MovementEngine movement;
+    private SpatialGrid grid;
+    private EnemyTable enemies;
+
+    @Before
+    public void setUp() {
+        movement = new MovementEngine(new EnemyWaves());
+        movement.setBounds(800, 600);
+        grid = new SpatialGrid();
+        grid.setBounds(800, 600);
+        enemies = new EnemyTable();
+    }
+
+    // Ja és a la distància justa del predecessor i res no l'empeny: no s'ha de moure
+    @Test
+    public void staysAtIdealSpot() {
+        grid.move(ANCHOR, 400, 375);
+        Point2D.Double next = movement.choose(400, 300, ANCHOR, 75, grid, enemies, 0);
+        assertEquals(400, next.x, 0);
+        assertEquals(300, next.y, 0);
+    }
+
+    @Test
+    public void movesTowardsAnchorWhenTooFar() {
+        grid.move(ANCHOR, 400, 500);
+        Point2D.Double next = movement.choose(400, 300, ANCHOR, 75, grid, enemies, 0);
+        assertTrue(next.y > 300);
+    }
+
+    @Test
+    public void movesAwayFromCloseTeammate() {
+        grid.move(ANCHOR + 1, 410, 300);
+        Point2D.Double next = movement.choose(400, 300, -1, 75, grid, enemies, 0);
+        assertTrue(next.x < 400);
+    }
+
+    @Test
+    public void movesAwayFromEnemy() {
+        int slot = enemies.acquire("sample.Crazy (1)");
+        enemies.update(slot, 0, 40, 0, 0, 400, 340, 0, 100, 0);
+        Point2D.Double next = movement.choose(400, 300, -1, 75, grid, enemies, 0);
+        assertTrue(next.y < 300);
+    }
+}
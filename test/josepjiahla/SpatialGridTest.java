@@ -0,0 +1,113 @@
+package josepjiahla;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SpatialGridTest {
+    private SpatialGrid grid;
+
+    @Before
+    public void setUp() {
+        grid = new SpatialGrid();
+        grid.setBounds(800, 600);
+    }
+
+    @Test
+    public void nearestIsMinusOneWhenEmpty() {
+        assertEquals(-1, grid.nearest(400, 300, SpatialGrid.ENEMY));
+    }
+
+    @Test
+    public void nearestFindsClosestOfKind() {
+        grid.move(0, 700, 500);
+        grid.move(1, 120, 110);
+        grid.move(SpatialGrid.TEAMMATE_BASE, 101, 101);
+        assertEquals(1, grid.nearest(100, 100, SpatialGrid.ENEMY));
+        assertEquals(SpatialGrid.TEAMMATE_BASE, grid.nearest(100, 100, SpatialGrid.TEAMMATE));
+    }
+
+    // Una entrada d'una cel·la veïna pot ser més a prop que una de la pròpia cel·la
+    @Test
+    public void nearestLooksAcrossCells() {
+        grid.move(0, 190, 150);
+        grid.move(1, 205, 150);
+        assertEquals(1, grid.nearest(199, 150, SpatialGrid.ENEMY));
+    }
+
+    @Test
+    public void nearestKIsSortedByDistance() {
+        grid.move(0, 400, 300);
+        grid.move(1, 100, 100);
+        grid.move(2, 450, 300);
+        grid.move(3, 790, 590);
+        int[] out = new int[3];
+        assertEquals(3, grid.nearest(390, 300, SpatialGrid.ENEMY, 3, out));
+        assertArrayEquals(new int[]{0, 2, 1}, out);
+    }
+
+    @Test
+    public void nearestKReturnsFewerWhenNotEnough() {
+        grid.move(0, 400, 300);
+        int[] out = new int[5];
+        assertEquals(1, grid.nearest(0, 0, SpatialGrid.ENEMY, 5, out));
+        assertEquals(0, out[0]);
+    }
+
+    @Test
+    public void withinOnlyReturnsEntriesInsideRadius() {
+        grid.move(0, 400, 300);
+        grid.move(1, 480, 300);
+        grid.move(2, 560, 300);
+        grid.move(SpatialGrid.TEAMMATE_BASE + 1, 410, 300);
+        int[] out = new int[8];
+        int found = grid.within(400, 300, 100, SpatialGrid.ENEMY, out);
+        int[] ids = Arrays.copyOf(out, found);
+        Arrays.sort(ids);
+        assertArrayEquals(new int[]{0, 1}, ids);
+    }
+
+    @Test
+    public void withinStopsAtOutputCapacity() {
+        for (int id = 0; id < 4; id++) {
+            grid.move(id, 400 + id, 300);
+        }
+        assertEquals(2, grid.within(400, 300, 50, SpatialGrid.ENEMY, new int[2]));
+    }
+
+    @Test
+    public void moveRelocatesEntryBetweenCells() {
+        grid.move(0, 50, 50);
+        grid.move(0, 750, 550);
+        assertEquals(750, grid.x(0), 0);
+        assertEquals(550, grid.y(0), 0);
+        assertEquals(0, grid.within(50, 50, 100, SpatialGrid.ENEMY, new int[4]));
+        assertEquals(0, grid.nearest(700, 500, SpatialGrid.ENEMY));
+    }
+
+    @Test
+    public void removeUnlinksEntry() {
+        grid.move(0, 400, 300);
+        grid.move(1, 410, 300);
+        grid.move(2, 420, 300);
+        grid.remove(1);
+        assertFalse(grid.contains(1));
+        assertTrue(grid.contains(0));
+        int[] out = new int[4];
+        int found = grid.within(400, 300, 100, SpatialGrid.ENEMY, out);
+        int[] ids = Arrays.copyOf(out, found);
+        Arrays.sort(ids);
+        assertArrayEquals(new int[]{0, 2}, ids);
+    }
+
+    @Test
+    public void setBoundsClearsEntries() {
+        grid.move(0, 400, 300);
+        grid.setBounds(1000, 1000);
+        assertFalse(grid.contains(0));
+        assertEquals(-1, grid.nearest(400, 300, SpatialGrid.ENEMY));
+    }
+}
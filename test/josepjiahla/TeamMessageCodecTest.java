@@ -0,0 +1,208 @@
+package josepjiahla;
+
+import josepjiahla.FollowTheLeaderRobot.CommanderAnnouncement;
+import josepjiahla.FollowTheLeaderRobot.DistanceReport;
+import josepjiahla.FollowTheLeaderRobot.HierarchyLink;
+import josepjiahla.FollowTheLeaderRobot.HierarchyUpdate;
+import josepjiahla.FollowTheLeaderRobot.LeaderProposal;
+import josepjiahla.FollowTheLeaderRobot.PositionUpdate;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TeamMessageCodecTest {
+    private static final String A = "josepjiahla.FollowTheLeaderRobot (1)";
+    private static final String B = "josepjiahla.FollowTheLeaderRobot (2)";
+    private static final String C = "josepjiahla.FollowTheLeaderRobot (3)";
+    private static final String ENEMY = "sample.SpinBot (1)";
+
+    private TeamMessageCodec codec;
+
+    @Before
+    public void setUp() {
+        codec = new TeamMessageCodec();
+        codec.setRoster(Arrays.asList(C, A, B));
+    }
+
+    // Llegeix l'etiqueta com fa onMessageReceived i deixa el buffer al primer camp
+    private static ByteBuffer open(byte[] message, byte tag) {
+        ByteBuffer in = ByteBuffer.wrap(message);
+        assertEquals(tag, in.get());
+        return in;
+    }
+
+    @Test
+    public void rosterIdsFollowAlphabeticalOrder() {
+        assertEquals(0, codec.rosterId(A));
+        assertEquals(1, codec.rosterId(B));
+        assertEquals(2, codec.rosterId(C));
+        assertEquals(-1, codec.rosterId(ENEMY));
+    }
+
+    @Test
+    public void leaderProposalRoundTrip() {
+        ByteBuffer in = open(codec.encode(new LeaderProposal(B, 12345)), TeamMessageCodec.LEADER_PROPOSAL);
+        LeaderProposal proposal = codec.readLeaderProposal(in);
+        assertEquals(B, proposal.getRobotName());
+        assertEquals(12345, proposal.getTicket());
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    public void commanderAnnouncementRoundTrip() {
+        ByteBuffer in = open(codec.encode(new CommanderAnnouncement(A, 100.5, 200.25)),
+                TeamMessageCodec.COMMANDER_ANNOUNCEMENT);
+        CommanderAnnouncement announcement = codec.readCommanderAnnouncement(in);
+        assertEquals(A, announcement.getCommanderName());
+        assertEquals(100.5, announcement.getX(), 0);
+        assertEquals(200.25, announcement.getY(), 0);
+    }
+
+    @Test
+    public void positionUpdateRoundTrip() {
+        ByteBuffer in = open(codec.encode(new PositionUpdate(C, 10, 20, 1.5, -8, 4321)),
+                TeamMessageCodec.POSITION_UPDATE);
+        PositionUpdate update = codec.readPositionUpdate(in);
+        assertEquals(C, update.getRobotName());
+        assertEquals(10, update.getX(), 0);
+        assertEquals(20, update.getY(), 0);
+        assertEquals(1.5, update.getHeadingRadians(), 0);
+        assertEquals(-8, update.getVelocity(), 0);
+        assertEquals(4321, update.getTime());
+    }
+
+    @Test
+    public void distanceReportRoundTrip() {
+        ByteBuffer in = open(codec.encode(new DistanceReport(B, 333.5)), TeamMessageCodec.DISTANCE_REPORT);
+        DistanceReport report = codec.readDistanceReport(in);
+        assertEquals(B, report.getRobotName());
+        assertEquals(333.5, report.getDistance(), 0);
+    }
+
+    @Test
+    public void enemyRoundTripMergesIntoTable() {
+        EnemyTable sent = new EnemyTable();
+        int slot = sent.acquire(ENEMY);
+        sent.update(slot, 45, 250, 0.5, 6, 300, 400, 77, 95.5, 1);
+        ByteBuffer in = open(codec.encodeEnemy(TeamMessageCodec.ENEMY_DATA, sent, slot), TeamMessageCodec.ENEMY_DATA);
+
+        EnemyTable received = new EnemyTable();
+        int merged = codec.readEnemy(in, received);
+        assertEquals(ENEMY, received.name(merged));
+        assertEquals(300, received.x[merged], 0);
+        assertEquals(400, received.y[merged], 0);
+        assertEquals(77, received.time[merged]);
+        assertEquals(95.5, received.energy[merged], 0);
+        assertEquals(1, received.source[merged]);
+        assertEquals(77, received.teamTime[merged]);
+    }
+
+    @Test
+    public void olderEnemyVersionDoesNotOverwrite() {
+        EnemyTable sent = new EnemyTable();
+        int slot = sent.acquire(ENEMY);
+        sent.update(slot, 0, 0, 0, 0, 300, 400, 50, 100, 1);
+        byte[] old = codec.encodeEnemy(TeamMessageCodec.ENEMY_DATA, sent, slot);
+
+        EnemyTable received = new EnemyTable();
+        int local = received.acquire(ENEMY);
+        received.update(local, 0, 0, 0, 0, 10, 20, 60, 100, 0);
+        codec.readEnemy(open(old, TeamMessageCodec.ENEMY_DATA), received);
+        assertEquals(10, received.x[local], 0);
+        assertEquals(60, received.time[local]);
+    }
+
+    @Test
+    public void enemyWaveRoundTrip() {
+        ByteBuffer in = open(codec.encodeWave(ENEMY, 100, 150, 42, 2.5), TeamMessageCodec.ENEMY_WAVE);
+        assertTrue(codec.readEnemyWave(in, new EnemyWaves()));
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    public void noTargetIsOnlyTheTag() {
+        assertArrayEquals(new byte[]{TeamMessageCodec.NO_TARGET}, codec.encodeNoTarget());
+    }
+
+    @Test
+    public void hierarchyUpdateRoundTripKeepsOrder() {
+        Map<String, String> hierarchy = new LinkedHashMap<>();
+        hierarchy.put(C, A);
+        hierarchy.put(B, C);
+        ByteBuffer in = open(codec.encode(new HierarchyUpdate(hierarchy)), TeamMessageCodec.HIERARCHY_UPDATE);
+        Map<String, String> decoded = codec.readHierarchyUpdate(in).getHierarchy();
+        assertEquals(hierarchy, decoded);
+        assertEquals(Arrays.asList(C, B), new ArrayList<>(decoded.keySet()));
+    }
+
+    @Test
+    public void hierarchyLinkRoundTrip() {
+        ByteBuffer in = open(codec.encode(new HierarchyLink(A)), TeamMessageCodec.HIERARCHY_LINK);
+        assertEquals(A, codec.readHierarchyLink(in).getRobotName());
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    public void envelopeCarriesRecordsInOrder() {
+        byte[] first = codec.encode(new DistanceReport(A, 1));
+        byte[] second = codec.encode(new DistanceReport(B, 2));
+        ByteBuffer in = ByteBuffer.wrap(codec.encodeEnvelope(Arrays.asList(first, second)));
+        assertEquals(TeamMessageCodec.ENVELOPE, in.get());
+        assertEquals(2, codec.readEnvelopeSize(in));
+        assertEquals(TeamMessageCodec.DISTANCE_REPORT, in.get());
+        assertEquals(A, codec.readDistanceReport(in).getRobotName());
+        assertEquals(TeamMessageCodec.DISTANCE_REPORT, in.get());
+        assertEquals(B, codec.readDistanceReport(in).getRobotName());
+        assertFalse(in.hasRemaining());
+    }
+
+    // Els noms fora del roster viatgen en línia
+    @Test
+    public void unknownNameTravelsInline() {
+        ByteBuffer in = open(codec.encode(new DistanceReport("outsider", 5)), TeamMessageCodec.DISTANCE_REPORT);
+        assertEquals("outsider", codec.readDistanceReport(in).getRobotName());
+    }
+
+    // Un id que el receptor no té al roster invalida el registre però deixa el buffer alineat
+    @Test
+    public void idOutsideReceiverRosterIsRejected() {
+        TeamMessageCodec receiver = new TeamMessageCodec();
+        receiver.setRoster(Arrays.asList(A, B));
+        byte[] first = codec.encode(new DistanceReport(C, 1));
+        byte[] second = codec.encode(new DistanceReport(B, 2));
+        ByteBuffer in = ByteBuffer.wrap(codec.encodeEnvelope(Arrays.asList(first, second)));
+        in.get();
+        receiver.readEnvelopeSize(in);
+        in.get();
+        assertNull(receiver.readDistanceReport(in));
+        in.get();
+        assertEquals(B, receiver.readDistanceReport(in).getRobotName());
+    }
+
+    @Test
+    public void hierarchyWithUnknownIdIsRejected() {
+        Map<String, String> hierarchy = new LinkedHashMap<>();
+        hierarchy.put(C, A);
+        byte[] message = codec.encode(new HierarchyUpdate(hierarchy));
+        TeamMessageCodec receiver = new TeamMessageCodec();
+        receiver.setRoster(Arrays.asList(A, B));
+        assertNull(receiver.readHierarchyUpdate(open(message, TeamMessageCodec.HIERARCHY_UPDATE)));
+    }
+
+    @Test
+    public void enemyWithUnknownIdIsRejected() {
+        EnemyTable sent = new EnemyTable();
+        int slot = sent.acquire(C);
+        byte[] message = codec.encodeEnemy(TeamMessageCodec.ENEMY_DATA, sent, slot);
+        TeamMessageCodec receiver = new TeamMessageCodec();
+        receiver.setRoster(Arrays.asList(A, B));
+        assertEquals(-1, receiver.readEnemy(open(message, TeamMessageCodec.ENEMY_DATA), new EnemyTable()));
+    }
+}
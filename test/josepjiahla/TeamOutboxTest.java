@@ -0,0 +1,133 @@
+package josepjiahla;
+
+import josepjiahla.FollowTheLeaderRobot.DistanceReport;
+import org.junit.Before;
+import org.junit.Test;
+import robocode.TeamRobot;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TeamOutboxTest {
+    private static final String A = "josepjiahla.FollowTheLeaderRobot (1)";
+    private static final String B = "josepjiahla.FollowTheLeaderRobot (2)";
+    private static final String C = "josepjiahla.FollowTheLeaderRobot (3)";
+
+    private TeamMessageCodec codec;
+    private TeamOutbox outbox;
+    private CapturingRobot robot;
+
+    @Before
+    public void setUp() {
+        codec = new TeamMessageCodec();
+        codec.setRoster(Arrays.asList(A, B, C));
+        outbox = new TeamOutbox(codec);
+        robot = new CapturingRobot();
+    }
+
+    // Guarda el que el robot enviaria: null com a destinatari vol dir difusió
+    private static final class CapturingRobot extends TeamRobot {
+        final List<String> recipients = new ArrayList<>();
+        final List<byte[]> messages = new ArrayList<>();
+
+        @Override
+        public void broadcastMessage(Serializable message) {
+            sendMessage(null, message);
+        }
+
+        @Override
+        public void sendMessage(String recipient, Serializable message) {
+            recipients.add(recipient);
+            messages.add((byte[]) message);
+        }
+    }
+
+    private byte[] report(String robot, double distance) {
+        return codec.encode(new DistanceReport(robot, distance));
+    }
+
+    // Torna els registres d'un missatge, sigui un registre sol o un sobre
+    private List<DistanceReport> reports(byte[] message) {
+        ByteBuffer in = ByteBuffer.wrap(message);
+        int count = 1;
+        if (in.get(0) == TeamMessageCodec.ENVELOPE) {
+            in.get();
+            count = codec.readEnvelopeSize(in);
+        }
+        List<DistanceReport> reports = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            assertEquals(TeamMessageCodec.DISTANCE_REPORT, in.get());
+            reports.add(codec.readDistanceReport(in));
+        }
+        assertFalse(in.hasRemaining());
+        return reports;
+    }
+
+    @Test
+    public void emptyFlushSendsNothing() throws IOException {
+        outbox.flush(robot);
+        assertTrue(robot.messages.isEmpty());
+    }
+
+    // Un sol registre surt tal qual, sense sobre
+    @Test
+    public void singleRecordIsSentWithoutEnvelope() throws IOException {
+        byte[] record = report(A, 1);
+        outbox.broadcast(record);
+        outbox.flush(robot);
+        assertEquals(1, robot.messages.size());
+        assertArrayEquals(record, robot.messages.get(0));
+    }
+
+    @Test
+    public void broadcastLatestKeepsOnlyLastRecordPerKey() throws IOException {
+        outbox.broadcastLatest(A, report(A, 1));
+        outbox.broadcastLatest(A, report(A, 2));
+        outbox.flush(robot);
+        assertEquals(1, robot.messages.size());
+        List<DistanceReport> sent = reports(robot.messages.get(0));
+        assertEquals(1, sent.size());
+        assertEquals(2, sent.get(0).getDistance(), 0);
+    }
+
+    @Test
+    public void mixedFlushSplitsBroadcastAndDirectEnvelopes() throws IOException {
+        outbox.broadcast(report(A, 1));
+        outbox.send(B, report(B, 2));
+        outbox.broadcastLatest(C, report(C, 3));
+        outbox.send(C, report(C, 4));
+        outbox.send(B, report(B, 5));
+        outbox.flush(robot);
+
+        Map<String, List<Double>> byRecipient = new LinkedHashMap<>();
+        for (int i = 0; i < robot.messages.size(); i++) {
+            List<Double> distances = new ArrayList<>();
+            for (DistanceReport report : reports(robot.messages.get(i))) {
+                distances.add(report.getDistance());
+            }
+            assertNull(byRecipient.put(robot.recipients.get(i), distances));
+        }
+        // Un missatge per destinatari; els registres amb clau van després dels normals
+        assertEquals(Arrays.asList(null, B, C), new ArrayList<>(byRecipient.keySet()));
+        assertEquals(Arrays.asList(1.0, 3.0), byRecipient.get(null));
+        assertEquals(Arrays.asList(2.0, 5.0), byRecipient.get(B));
+        assertEquals(Arrays.asList(4.0), byRecipient.get(C));
+    }
+
+    @Test
+    public void flushEmptiesTheOutbox() throws IOException {
+        outbox.broadcastLatest(A, report(A, 1));
+        outbox.send(B, report(B, 2));
+        outbox.flush(robot);
+        outbox.flush(robot);
+        assertEquals(2, robot.messages.size());
+    }
+}
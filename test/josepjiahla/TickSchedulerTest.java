@@ -0,0 +1,124 @@
+package josepjiahla;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TickSchedulerTest {
+    private TickScheduler scheduler;
+    private List<String> runs;
+
+    @Before
+    public void setUp() {
+        scheduler = new TickScheduler();
+        runs = new ArrayList<>();
+        for (int task = 0; task < 3; task++) {
+            int id = task;
+            scheduler.register(task, () -> runs.add("task" + id));
+        }
+    }
+
+    @Test
+    public void runsTaskOnItsTick() {
+        scheduler.schedule(0, 5);
+        assertFalse(scheduler.hasDue(4));
+        scheduler.runDue(4);
+        assertTrue(runs.isEmpty());
+        assertTrue(scheduler.hasDue(5));
+        scheduler.runDue(5);
+        assertEquals(List.of("task0"), runs);
+        assertFalse(scheduler.isScheduled(0));
+    }
+
+    @Test
+    public void runsEachExecutionOnce() {
+        scheduler.schedule(0, 2);
+        scheduler.runDue(2);
+        scheduler.runDue(3);
+        assertEquals(1, runs.size());
+    }
+
+    // Si es salten torns (SkippedTurn), les tasques vençudes surten al següent processament
+    @Test
+    public void catchesUpSkippedTicks() {
+        scheduler.schedule(0, 3);
+        scheduler.schedule(1, 6);
+        scheduler.runDue(10);
+        assertEquals(List.of("task0", "task1"), runs);
+    }
+
+    @Test
+    public void pastTickRunsOnNextProcessing() {
+        scheduler.runDue(20);
+        scheduler.schedule(0, 5);
+        assertTrue(scheduler.hasDue(21));
+        scheduler.runDue(21);
+        assertEquals(List.of("task0"), runs);
+    }
+
+    @Test
+    public void rescheduleReplacesPreviousTick() {
+        scheduler.schedule(0, 5);
+        scheduler.schedule(0, 8);
+        scheduler.runDue(5);
+        assertTrue(runs.isEmpty());
+        scheduler.runDue(8);
+        assertEquals(List.of("task0"), runs);
+    }
+
+    @Test
+    public void cancelledTaskDoesNotRun() {
+        scheduler.schedule(0, 5);
+        scheduler.cancel(0);
+        assertFalse(scheduler.isScheduled(0));
+        assertFalse(scheduler.hasDue(5));
+        scheduler.runDue(5);
+        assertTrue(runs.isEmpty());
+    }
+
+    // Més d'una volta de la roda: comparteix cubeta amb el torn 1 però no ha de sortir abans
+    @Test
+    public void waitsForTicksBeyondOneWheelTurn() {
+        scheduler.schedule(0, 65);
+        scheduler.runDue(1);
+        assertTrue(runs.isEmpty());
+        assertTrue(scheduler.isScheduled(0));
+        for (long tick = 2; tick < 65; tick++) {
+            scheduler.runDue(tick);
+        }
+        assertTrue(runs.isEmpty());
+        scheduler.runDue(65);
+        assertEquals(List.of("task0"), runs);
+    }
+
+    @Test
+    public void taskCanRescheduleItself() {
+        scheduler.register(0, () -> {
+            runs.add("task0");
+            scheduler.schedule(0, 10);
+        });
+        scheduler.schedule(0, 5);
+        scheduler.runDue(5);
+        assertTrue(scheduler.isScheduled(0));
+        scheduler.runDue(9);
+        assertEquals(1, runs.size());
+        scheduler.runDue(10);
+        assertEquals(2, runs.size());
+    }
+
+    @Test
+    public void taskCanCancelAnotherDueTask() {
+        scheduler.register(0, () -> {
+            runs.add("task0");
+            scheduler.cancel(1);
+        });
+        scheduler.schedule(0, 5);
+        scheduler.schedule(1, 5);
+        scheduler.runDue(5);
+        assertEquals(List.of("task0"), runs);
+    }
+}
@@ -0,0 +1,236 @@
+package josepjiahla;
+
+import robocode.BattleResults;
+import robocode.control.BattleSpecification;
+import robocode.control.BattlefieldSpecification;
+import robocode.control.RobocodeEngine;
+import robocode.control.RobotSpecification;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleCompletedEvent;
+import robocode.control.events.BattleErrorEvent;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.events.TurnStartedEvent;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Batalles sense GUI de FollowTheLeader.team contra bots de mostra. Cada lot corre en un procés
+// propi (Robocode no admet diversos motors dins la mateixa JVM) i se'n sumen els resultats.
+//
+//   java -cp <robocode>/libs/*:build/tools josepjiahla.BattleRunner --robocode-home <dir>
+//        [--opponents sample.Walls,sample.Crazy] [--rounds 100] [--workers 4] [--width 800] [--height 600]
+public class BattleRunner {
+    static final String TEAM = "josepjiahla.FollowTheLeader*";
+    private static final String RESULT_PREFIX = "RESULT ";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        File robocodeHome = new File(require(options, "robocode-home"));
+        int width = Integer.parseInt(options.getOrDefault("width", "800"));
+        int height = Integer.parseInt(options.getOrDefault("height", "600"));
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "100"));
+
+        if (options.containsKey("worker")) {
+            BattleStats stats = runBattle(robocodeHome, options.get("opponents"), rounds, width, height);
+            stats.cpuNanos = ProcessHandle.current().info().totalCpuDuration().map(Duration::toNanos).orElse(0L);
+            System.out.println(RESULT_PREFIX + stats.serialize());
+            return;
+        }
+
+        int workers = Integer.parseInt(options.getOrDefault("workers",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        List<String> opponents = Arrays.asList(options.getOrDefault("opponents", "sample.Walls,sample.Crazy,sample.SpinBot").split(","));
+
+        for (String opponent : opponents) {
+            BattleStats total = runParallel(robocodeHome, opponent, rounds, workers, width, height, Collections.emptyList());
+            System.out.println(opponent + ": " + total.summary());
+        }
+    }
+
+    // Reparteix les rondes entre processos fills i en suma els resultats
+    static BattleStats runParallel(File robocodeHome, String opponents, int rounds, int workers, int width, int height,
+                                   List<String> jvmArgs) throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<BattleStats>> batches = new ArrayList<>();
+            int perWorker = (rounds + workers - 1) / workers;
+            for (int assigned = 0; assigned < rounds; assigned += perWorker) {
+                int batchRounds = Math.min(perWorker, rounds - assigned);
+                batches.add(pool.submit(() -> runWorker(robocodeHome, opponents, batchRounds, width, height, jvmArgs)));
+            }
+
+            BattleStats total = new BattleStats();
+            for (Future<BattleStats> batch : batches) {
+                total.add(batch.get());
+            }
+            return total;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static BattleStats runWorker(File robocodeHome, String opponents, int rounds, int width, int height,
+                                         List<String> jvmArgs) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add("-Xmx512m");
+        command.add("-Djava.security.manager=allow");
+        command.addAll(jvmArgs);
+        command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), BattleRunner.class.getName(),
+                "--worker", "--robocode-home", robocodeHome.getPath(), "--opponents", opponents,
+                "--rounds", String.valueOf(rounds), "--width", String.valueOf(width), "--height", String.valueOf(height)));
+
+        Process process = new ProcessBuilder(command).directory(robocodeHome).redirectErrorStream(true).start();
+        BattleStats stats = null;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            for (String line = out.readLine(); line != null; line = out.readLine()) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    stats = BattleStats.parse(line.substring(RESULT_PREFIX.length()));
+                }
+            }
+        }
+        if (process.waitFor() != 0 || stats == null) {
+            throw new IOException("Battle worker failed against " + opponents);
+        }
+        return stats;
+    }
+
+    static BattleStats runBattle(File robocodeHome, String opponents, int rounds, int width, int height) {
+        RobocodeEngine.setLogMessagesEnabled(false);
+        RobocodeEngine engine = new RobocodeEngine(robocodeHome);
+        BattleObserver observer = new BattleObserver();
+        engine.addBattleListener(observer);
+        engine.setVisible(false);
+
+        try {
+            RobotSpecification[] robots = engine.getLocalRepository(TEAM + "," + opponents);
+            BattleSpecification battle = new BattleSpecification(rounds, new BattlefieldSpecification(width, height), robots);
+            engine.runBattle(battle, true);
+        } finally {
+            engine.close();
+        }
+        observer.stats.rounds = rounds;
+        return observer.stats;
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) continue;
+            String key = args[i].substring(2);
+            boolean hasValue = i + 1 < args.length && !args[i + 1].startsWith("--");
+            options.put(key, hasValue ? args[++i] : "true");
+        }
+        return options;
+    }
+
+    static String require(Map<String, String> options, String key) {
+        String value = options.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + key);
+        }
+        return value;
+    }
+
+    private static class BattleObserver extends BattleAdaptor {
+        private final BattleStats stats = new BattleStats();
+        private long turnStart;
+
+        @Override
+        public void onTurnStarted(TurnStartedEvent event) {
+            turnStart = System.nanoTime();
+        }
+
+        @Override
+        public void onTurnEnded(TurnEndedEvent event) {
+            stats.turns++;
+            stats.engineTurnNanos += System.nanoTime() - turnStart;
+        }
+
+        @Override
+        public void onBattleCompleted(BattleCompletedEvent event) {
+            for (BattleResults result : event.getIndexedResults()) {
+                if (result.getTeamLeaderName().startsWith("josepjiahla.")) {
+                    stats.wins += result.getFirsts();
+                    stats.score += result.getScore();
+                    stats.bulletDamage += result.getBulletDamage();
+                } else {
+                    stats.opponentScore += result.getScore();
+                }
+            }
+        }
+
+        @Override
+        public void onBattleError(BattleErrorEvent event) {
+            System.err.println("Battle error: " + event.getError());
+        }
+    }
+
+    static class BattleStats {
+        int rounds;
+        int wins;
+        long score;
+        long opponentScore;
+        long bulletDamage;
+        long turns;
+        long engineTurnNanos; // temps de rellotge entre TurnStarted i TurnEnded: tot el motor, no només l'equip
+        long cpuNanos; // CPU de tot el procés fill, motor inclòs
+
+        void add(BattleStats other) {
+            rounds += other.rounds;
+            wins += other.wins;
+            score += other.score;
+            opponentScore += other.opponentScore;
+            bulletDamage += other.bulletDamage;
+            turns += other.turns;
+            engineTurnNanos += other.engineTurnNanos;
+            cpuNanos += other.cpuNanos;
+        }
+
+        double winRate() {
+            return rounds == 0 ? 0 : (double) wins / rounds;
+        }
+
+        double scoreShare() {
+            long total = score + opponentScore;
+            return total == 0 ? 0 : (double) score / total;
+        }
+
+        double engineMicrosPerTurn() {
+            return turns == 0 ? 0 : engineTurnNanos / 1000.0 / turns;
+        }
+
+        double scorePerCpuSecond() {
+            return cpuNanos == 0 ? 0 : score / (cpuNanos / 1e9);
+        }
+
+        String summary() {
+            return String.format(Locale.ROOT, "rounds=%d winRate=%.3f scoreShare=%.3f bulletDamage=%d engineWallTime/turn=%.1fus score/cpu-s=%.1f",
+                    rounds, winRate(), scoreShare(), bulletDamage, engineMicrosPerTurn(), scorePerCpuSecond());
+        }
+
+        String serialize() {
+            return rounds + " " + wins + " " + score + " " + opponentScore + " " + bulletDamage + " " + turns + " " + engineTurnNanos
+                    + " " + cpuNanos;
+        }
+
+        static BattleStats parse(String line) {
+            String[] parts = line.trim().split(" ");
+            BattleStats stats = new BattleStats();
+            stats.rounds = Integer.parseInt(parts[0]);
+            stats.wins = Integer.parseInt(parts[1]);
+            stats.score = Long.parseLong(parts[2]);
+            stats.opponentScore = Long.parseLong(parts[3]);
+            stats.bulletDamage = Long.parseLong(parts[4]);
+            stats.turns = Long.parseLong(parts[5]);
+            stats.engineTurnNanos = Long.parseLong(parts[6]);
+            stats.cpuNanos = Long.parseLong(parts[7]);
+            return stats;
+        }
+    }
+}
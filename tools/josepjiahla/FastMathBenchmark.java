@@ -0,0 +1,85 @@
+package josepjiahla;
+
+import robocode.util.Utils;
+
+import java.util.*;
+import java.util.function.LongSupplier;
+
+// Precisió i velocitat de FastMath contra java.lang.Math, per a diverses mides de taula.
+//
+//   java -cp <robocode.jar>:build/classes:build/tools josepjiahla.FastMathBenchmark
+public class FastMathBenchmark {
+    private static final int SAMPLES = 1 << 16;
+    private static final int MIN_BITS = 8;
+    private static final int MAX_BITS = 14;
+
+    public static void main(String[] args) {
+        // Angles i coordenades com els d'una batalla: rumbs acumulats i diferències de posició en un camp de 800x600
+        Random random = new Random(1);
+        double[] angles = new double[SAMPLES];
+        double[] dx = new double[SAMPLES];
+        double[] dy = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            angles[i] = (random.nextDouble() - 0.5) * 40 * Math.PI;
+            dx[i] = (random.nextDouble() - 0.5) * 1600;
+            dy[i] = (random.nextDouble() - 0.5) * 1200;
+        }
+        int[] index = {0};
+
+        System.out.printf("%-32s %12s%n", "accuracy", "maxError");
+        for (int bits = MIN_BITS; bits <= MAX_BITS; bits++) {
+            FastMath.Table table = new FastMath.Table(bits);
+            double maxError = 0;
+            for (int i = 0; i < SAMPLES; i++) {
+                maxError = Math.max(maxError, Math.abs(table.sin(angles[i]) - Math.sin(angles[i])));
+                maxError = Math.max(maxError, Math.abs(table.cos(angles[i]) - Math.cos(angles[i])));
+            }
+            System.out.printf(Locale.ROOT, "%-32s %12.2e%n", "sin/cos table " + bits + " bits", maxError);
+        }
+        double atanError = 0;
+        double normalError = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            atanError = Math.max(atanError, Math.abs(FastMath.atan2(dx[i], dy[i]) - Math.atan2(dx[i], dy[i])));
+            normalError = Math.max(normalError, Math.abs(Math.sin(FastMath.normalRelativeAngle(angles[i]))
+                    - Math.sin(Utils.normalRelativeAngle(angles[i]))));
+        }
+        System.out.printf(Locale.ROOT, "%-32s %12.2e%n", "atan2", atanError);
+        System.out.printf(Locale.ROOT, "%-32s %12.2e%n", "normalRelativeAngle", normalError);
+        System.out.println();
+
+        Map<String, LongSupplier> benchmarks = new LinkedHashMap<>();
+        benchmarks.put("Math.sin+cos", () -> {
+            double angle = angles[index[0]++ & (SAMPLES - 1)];
+            return (long) (1000 * (Math.sin(angle) + Math.cos(angle)));
+        });
+        for (int bits = MIN_BITS; bits <= MAX_BITS; bits += 2) {
+            FastMath.Table table = new FastMath.Table(bits);
+            benchmarks.put("FastMath.sin+cos " + bits + " bits", () -> {
+                double angle = angles[index[0]++ & (SAMPLES - 1)];
+                return (long) (1000 * (table.sin(angle) + table.cos(angle)));
+            });
+        }
+        benchmarks.put("Math.atan2", () -> {
+            int i = index[0]++ & (SAMPLES - 1);
+            return (long) (1000 * Math.atan2(dx[i], dy[i]));
+        });
+        benchmarks.put("FastMath.atan2", () -> {
+            int i = index[0]++ & (SAMPLES - 1);
+            return (long) (1000 * FastMath.atan2(dx[i], dy[i]));
+        });
+        benchmarks.put("Utils.normalRelativeAngle", () -> {
+            double angle = angles[index[0]++ & (SAMPLES - 1)];
+            return (long) (1000 * Utils.normalRelativeAngle(angle));
+        });
+        benchmarks.put("FastMath.normalRelativeAngle", () -> {
+            double angle = angles[index[0]++ & (SAMPLES - 1)];
+            return (long) (1000 * FastMath.normalRelativeAngle(angle));
+        });
+
+        System.out.printf("%-32s %12s %10s%n", "benchmark", "ns/op", "error");
+        for (Map.Entry<String, LongSupplier> benchmark : benchmarks.entrySet()) {
+            MicroBenchmarks.run(benchmark.getKey(), benchmark.getValue());
+        }
+        if (MicroBenchmarks.sink == 42) System.out.println();
+    }
+}
@@ -0,0 +1,73 @@
+package josepjiahla;
+
+import robocode.Bullet;
+import robocode.Condition;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+// FollowTheLeaderRobot sense el motor de Robocode: l'estat propi són camps que omple qui el fa córrer
+// (ReplayHarness des del log, MicroBenchmarks a mà) i les ordres de moviment, tir i missatges no fan res.
+class HeadlessRobot extends FollowTheLeaderRobot {
+    private static final File NO_DATA = new File("headless-no-data");
+
+    final List<Condition> conditions = new ArrayList<>();
+    String name;
+    int round;
+    double width, height;
+    String[] teammates = new String[0];
+    long time;
+    double x, y, heading, gunHeading, radarHeading, velocity, energy, distanceRemaining, gunHeat;
+
+    @Override public String getName() { return name; }
+    @Override public int getRoundNum() { return round; }
+    @Override public long getTime() { return time; }
+    @Override public double getX() { return x; }
+    @Override public double getY() { return y; }
+    @Override public double getHeadingRadians() { return heading; }
+    @Override public double getGunHeadingRadians() { return gunHeading; }
+    @Override public double getRadarHeadingRadians() { return radarHeading; }
+    @Override public double getVelocity() { return velocity; }
+    @Override public double getEnergy() { return energy; }
+    @Override public double getDistanceRemaining() { return distanceRemaining; }
+    @Override public double getGunHeat() { return gunHeat; }
+    @Override public double getBattleFieldWidth() { return width; }
+    @Override public double getBattleFieldHeight() { return height; }
+    @Override public String[] getTeammates() { return teammates.length == 0 ? null : teammates.clone(); }
+
+    @Override
+    public boolean isTeammate(String robotName) {
+        for (String teammate : teammates) {
+            if (teammate.equals(robotName)) return true;
+        }
+        return false;
+    }
+
+    // Sense quota el robot no enregistra ni desa perfils; els perfils es llegeixen buits
+    @Override public long getDataQuotaAvailable() { return 0; }
+    @Override public File getDataFile(String filename) { return NO_DATA; }
+
+    @Override public void addCustomEvent(Condition condition) { conditions.add(condition); }
+    @Override public void broadcastMessage(Serializable message) { }
+    @Override public void sendMessage(String recipient, Serializable message) { }
+    @Override public void setColors(Color body, Color gun, Color radar) { }
+    @Override public void setAdjustGunForRobotTurn(boolean independent) { }
+    @Override public void setAdjustRadarForGunTurn(boolean independent) { }
+    @Override public void setAdjustRadarForRobotTurn(boolean independent) { }
+    @Override public void setAhead(double distance) { }
+    @Override public void setTurnRightRadians(double radians) { }
+    @Override public void setTurnGunRightRadians(double radians) { }
+    @Override public void setTurnRadarRight(double degrees) { }
+    @Override public void setTurnRadarRightRadians(double radians) { }
+    @Override public void setFire(double power) { }
+
+    // Com el motor: només surt bala amb el canó fred i energia suficient
+    @Override
+    public Bullet setFireBullet(double power) {
+        if (gunHeat > 0 || energy < power) return null;
+        return new Bullet(gunHeading, x, y, power, name, null, true, (int) time);
+    }
+}
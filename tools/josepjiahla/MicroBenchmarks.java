@@ -0,0 +1,211 @@
+package josepjiahla;
+
+import robocode.ScannedRobotEvent;
+
+import java.awt.geom.Point2D;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+// Microbenchmarks dels components dels camins calents del robot, a l'estil de JMH: escalfament, iteracions
+// de mesura de durada fixa i un resultat acumulat perquè el JIT no elimini el treball. Cada cas porta el
+// nom de la classe que mesura; els robot.* criden els handlers sencers d'un HeadlessRobot.
+//
+//   java -cp <robocode.jar>:build/classes:build/tools josepjiahla.MicroBenchmarks [filtre]
+public class MicroBenchmarks {
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURE_ITERATIONS = 10;
+    private static final long ITERATION_NANOS = 200_000_000L;
+    private static final double FIELD_WIDTH = 800;
+    private static final double FIELD_HEIGHT = 600;
+
+    static long sink;
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        Map<String, LongSupplier> benchmarks = new LinkedHashMap<>();
+        register(benchmarks);
+
+        System.out.printf("%-36s %12s %10s%n", "benchmark", "ns/op", "error");
+        for (Map.Entry<String, LongSupplier> benchmark : benchmarks.entrySet()) {
+            if (benchmark.getKey().contains(filter)) {
+                run(benchmark.getKey(), benchmark.getValue());
+            }
+        }
+        if (sink == 42) System.out.println();
+    }
+
+    static void register(Map<String, LongSupplier> benchmarks) {
+        TeamMessageCodec codec = new TeamMessageCodec();
+        codec.setRoster(Arrays.asList("josepjiahla.FollowTheLeaderRobot (1)", "josepjiahla.FollowTheLeaderRobot (2)",
+                "josepjiahla.FollowTheLeaderRobot (3)", "josepjiahla.FollowTheLeaderRobot (4)",
+                "josepjiahla.FollowTheLeaderRobot (5)"));
+
+        EnemyTable enemies = new EnemyTable();
+        TargetingEngine targeting = new TargetingEngine();
+        targeting.setBounds(FIELD_WIDTH, FIELD_HEIGHT);
+        int slot = enemies.acquire("sample.SpinBot (1)");
+        long[] tick = {0};
+        double[] heading = {0};
+        Runnable scan = () -> {
+            // Moviment en zig-zag perquè el pattern matching tingui feina real
+            long t = ++tick[0];
+            heading[0] += (t % 40 < 20) ? 0.06 : -0.06;
+            double x = FIELD_WIDTH / 2 + Math.sin(t * 0.02) * 200;
+            double y = FIELD_HEIGHT / 2 + Math.cos(t * 0.03) * 150;
+            enemies.update(slot, 30, 300, heading[0], 8, x, y, t, 100, 0);
+            targeting.record(enemies, slot);
+        };
+        for (int i = 0; i < EnemyMotionHistory.LENGTH; i++) {
+            scan.run();
+        }
+
+        benchmarks.put("enemyTable.update+record+encode", () -> {
+            scan.run();
+            return codec.encodeEnemy(TeamMessageCodec.ENEMY_DATA, enemies, slot).length;
+        });
+
+        Point2D.Double aim = new Point2D.Double();
+        TargetPredictor patternMatching = targeting.patternMatching();
+        benchmarks.put("targeting.patternMatching", () -> {
+            patternMatching.predict(enemies, slot, 100, 100, 14, tick[0], aim);
+            return (long) aim.x;
+        });
+        TargetPredictor circular = targeting.circular();
+        benchmarks.put("targeting.circular", () -> {
+            circular.predict(enemies, slot, 100, 100, 14, tick[0], aim);
+            return (long) aim.x;
+        });
+
+        VirtualGuns guns = new VirtualGuns(targeting, new EnemyProfiles(null, new HashMap<>()));
+        benchmarks.put("virtualGuns.advance+aim+fire", () -> {
+            // Un tret per torn: el pool es manté ple com en el pitjor cas d'una batalla
+            guns.advance(enemies, tick[0]);
+            double angle = guns.aim(enemies, slot, 100, 100, 14, tick[0]);
+            guns.fire("sample.SpinBot (1)", slot, 100, 100, 14, tick[0]);
+            scan.run();
+            return (long) angle;
+        });
+
+        // Melee gran: 40 enemics escampats i 5 companys
+        SpatialGrid grid = new SpatialGrid();
+        grid.setBounds(FIELD_WIDTH, FIELD_HEIGHT);
+        Random random = new Random(1);
+        for (int id = 0; id < 40; id++) {
+            grid.move(id, random.nextDouble() * FIELD_WIDTH, random.nextDouble() * FIELD_HEIGHT);
+        }
+        for (int id = 0; id < 5; id++) {
+            grid.move(SpatialGrid.TEAMMATE_BASE + id, random.nextDouble() * FIELD_WIDTH, random.nextDouble() * FIELD_HEIGHT);
+        }
+        int[] neighbours = new int[5];
+        benchmarks.put("spatialIndex.nearest", () -> grid.nearest(tick[0]++ % FIELD_WIDTH, 300, SpatialGrid.ENEMY));
+        benchmarks.put("spatialIndex.nearest5", () -> grid.nearest(tick[0]++ % FIELD_WIDTH, 300, SpatialGrid.ENEMY, 5, neighbours));
+        benchmarks.put("spatialIndex.within150", () -> grid.within(tick[0]++ % FIELD_WIDTH, 300, 150, SpatialGrid.ENEMY, neighbours));
+        benchmarks.put("spatialIndex.move", () -> {
+            int id = (int) (tick[0]++ % 40);
+            grid.move(id, random.nextDouble() * FIELD_WIDTH, random.nextDouble() * FIELD_HEIGHT);
+            return id;
+        });
+
+        byte[] enemyRecord = codec.encodeEnemy(TeamMessageCodec.ENEMY_DATA, enemies, slot);
+        EnemyTable received = new EnemyTable();
+        benchmarks.put("codec.decode.enemyData", () -> {
+            ByteBuffer in = ByteBuffer.wrap(enemyRecord);
+            in.get();
+            return codec.readEnemy(in, received);
+        });
+
+        FollowTheLeaderRobot.PositionUpdate update = new FollowTheLeaderRobot.PositionUpdate(
+                "josepjiahla.FollowTheLeaderRobot (2)", 120, 340, 1.2, 8, 500);
+        benchmarks.put("codec.encode.positionUpdate", () -> codec.encode(update).length);
+        byte[] positionRecord = codec.encode(update);
+        benchmarks.put("codec.decode.positionUpdate", () -> {
+            ByteBuffer in = ByteBuffer.wrap(positionRecord);
+            in.get();
+            return (long) codec.readPositionUpdate(in).getX();
+        });
+
+        List<byte[]> records = Arrays.asList(enemyRecord, positionRecord, enemyRecord, positionRecord);
+        benchmarks.put("codec.encode.envelope", () -> codec.encodeEnvelope(records).length);
+
+        registerHandlers(benchmarks);
+    }
+
+    // Un robot sol sense motor que escaneja cada torn el mateix enemic en zig-zag. Els escanejos es
+    // construeixen abans perquè la mesura no inclogui crear els events.
+    private static void registerHandlers(Map<String, LongSupplier> benchmarks) {
+        FollowTheLeaderRobot.resetBattleState();
+        HeadlessRobot robot = new HeadlessRobot();
+        robot.name = "josepjiahla.FollowTheLeaderRobot (1)";
+        robot.width = FIELD_WIDTH;
+        robot.height = FIELD_HEIGHT;
+        robot.x = 100;
+        robot.y = 100;
+        robot.energy = 100;
+        robot.setupRobot();
+
+        ScannedRobotEvent[] scans = new ScannedRobotEvent[EnemyMotionHistory.LENGTH];
+        double heading = 0;
+        for (int t = 0; t < scans.length; t++) {
+            heading += (t % 40 < 20) ? 0.06 : -0.06;
+            double x = FIELD_WIDTH / 2 + Math.sin(t * 0.02) * 200;
+            double y = FIELD_HEIGHT / 2 + Math.cos(t * 0.03) * 150;
+            double bearing = Math.atan2(x - robot.x, y - robot.y);
+            scans[t] = new ScannedRobotEvent("sample.SpinBot (1)", 100, bearing, Point2D.distance(robot.x, robot.y, x, y),
+                    heading, 8, false);
+        }
+        Runnable turn = () -> {
+            robot.time++;
+            robot.onScannedRobot(scans[(int) (robot.time % scans.length)]);
+        };
+        for (int i = 0; i < scans.length; i++) {
+            turn.run();
+        }
+        robot.choosePrimaryTarget();
+
+        benchmarks.put("robot.onScannedRobot", () -> {
+            turn.run();
+            return robot.time;
+        });
+        // Inclou l'escaneig del torn perquè els predictors vegin l'enemic moure's: resteu robot.onScannedRobot
+        benchmarks.put("robot.onScannedRobot+trackAndFire", () -> {
+            turn.run();
+            robot.trackAndFire();
+            return robot.time;
+        });
+    }
+
+    static void run(String name, LongSupplier operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iterate(operation);
+        }
+        double[] results = new double[MEASURE_ITERATIONS];
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            results[i] = iterate(operation);
+        }
+
+        double mean = 0;
+        for (double result : results) mean += result;
+        mean /= results.length;
+        double variance = 0;
+        for (double result : results) variance += (result - mean) * (result - mean);
+        double error = Math.sqrt(variance / (results.length - 1));
+
+        System.out.printf(Locale.ROOT, "%-36s %12.1f %10.1f%n", name, mean, error);
+    }
+
+    // Una iteració: crida l'operació en blocs fins a omplir ITERATION_NANOS i retorna ns/op
+    private static double iterate(LongSupplier operation) {
+        long operations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < 1000; i++) {
+                sink += operation.getAsLong();
+            }
+            operations += 1000;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ITERATION_NANOS);
+        return (double) elapsed / operations;
+    }
+}
@@ -0,0 +1,267 @@
+package josepjiahla;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+// Ajust fora de línia dels paràmetres de TeamParameters: genera variants de FollowTheLeader.properties
+// (graella o mostreig aleatori sobre un fitxer d'espai), les fa lluitar sense GUI i les classifica per
+// puntuació per segon de CPU. Cada candidat és una còpia de les classes del robot amb el seu perfil,
+// carregada amb -DROBOTPATH; un ForkJoinPool n'avalua tants alhora com nuclis hi ha.
+//
+//   java -cp <robocode>/libs/*:build/tools josepjiahla.ParameterTuner --robocode-home <dir> --space <fitxer>
+//        [--classes build/classes] [--search grid|random] [--samples 32] [--seed 1] [--parallelism N]
+//        [--opponents sample.Walls,sample.Crazy] [--rounds 20] [--top 10] [--out tuned.properties]
+//
+// El fitxer d'espai té una línia per paràmetre amb els valors a provar (follow.distance=80,100,120).
+// En mode random s'hi mostreja uniformement entre el mínim i el màxim, enter si tots els valors ho són.
+public class ParameterTuner {
+    private static final String PACKAGE_DIR = "josepjiahla";
+    private static final String RESOURCE = "FollowTheLeader.properties"; // TeamParameters.RESOURCE, sense carregar el robot
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = BattleRunner.parseOptions(args);
+        File robocodeHome = new File(BattleRunner.require(options, "robocode-home"));
+        Path classes = Paths.get(options.getOrDefault("classes", "build/classes"));
+        Map<String, List<String>> space = readSpace(Paths.get(BattleRunner.require(options, "space")));
+        Properties base = readProperties(classes.resolve(PACKAGE_DIR).resolve(RESOURCE));
+        for (String key : space.keySet()) {
+            if (!base.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown parameter " + key + " (not in " + RESOURCE + ")");
+            }
+        }
+
+        List<Map<String, String>> overrides = options.getOrDefault("search", "grid").equals("random")
+                ? randomSearch(space, Integer.parseInt(options.getOrDefault("samples", "32")),
+                        new Random(Long.parseLong(options.getOrDefault("seed", "1"))))
+                : gridSearch(space);
+
+        Settings settings = new Settings();
+        settings.robocodeHome = robocodeHome;
+        settings.classes = classes;
+        settings.opponents = options.getOrDefault("opponents", "sample.Walls,sample.Crazy,sample.SpinBot").split(",");
+        settings.rounds = Integer.parseInt(options.getOrDefault("rounds", "20"));
+        settings.width = Integer.parseInt(options.getOrDefault("width", "800"));
+        settings.height = Integer.parseInt(options.getOrDefault("height", "600"));
+        warnIfShadowed(robocodeHome);
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (Map<String, String> override : overrides) {
+            Properties properties = new Properties();
+            properties.putAll(base);
+            properties.putAll(override);
+            candidates.add(new Candidate(candidates.size(), override, properties));
+        }
+
+        int parallelism = Integer.parseInt(options.getOrDefault("parallelism",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        System.out.println("Evaluating " + candidates.size() + " candidates, " + parallelism + " at a time");
+        settings.workDir = Files.createTempDirectory("ftl-tune");
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Sweep(candidates, 0, candidates.size(), settings));
+        } finally {
+            pool.shutdown();
+            deleteTree(settings.workDir);
+        }
+
+        List<Candidate> ranked = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            if (candidate.stats != null) ranked.add(candidate);
+        }
+        ranked.sort(Comparator.comparingDouble((Candidate c) -> c.stats.scorePerCpuSecond()).reversed());
+
+        int top = Math.min(ranked.size(), Integer.parseInt(options.getOrDefault("top", "10")));
+        System.out.println();
+        for (int rank = 0; rank < top; rank++) {
+            Candidate candidate = ranked.get(rank);
+            System.out.println((rank + 1) + ". " + candidate.override + " " + candidate.stats.summary());
+        }
+        if (ranked.isEmpty()) {
+            throw new IOException("No candidate finished its battles");
+        }
+
+        File out = new File(options.getOrDefault("out", "tuned.properties"));
+        writeProperties(ranked.get(0).properties, out.toPath(), "ParameterTuner best of " + candidates.size());
+        System.out.println("Best profile written to " + out.getPath());
+    }
+
+    // Producte cartesià de tots els valors, en l'ordre del fitxer d'espai
+    static List<Map<String, String>> gridSearch(Map<String, List<String>> space) {
+        List<Map<String, String>> result = new ArrayList<>();
+        result.add(new LinkedHashMap<>());
+        for (Map.Entry<String, List<String>> parameter : space.entrySet()) {
+            List<Map<String, String>> expanded = new ArrayList<>();
+            for (Map<String, String> partial : result) {
+                for (String value : parameter.getValue()) {
+                    Map<String, String> next = new LinkedHashMap<>(partial);
+                    next.put(parameter.getKey(), value);
+                    expanded.add(next);
+                }
+            }
+            result = expanded;
+        }
+        return result;
+    }
+
+    static List<Map<String, String>> randomSearch(Map<String, List<String>> space, int samples, Random random) {
+        List<Map<String, String>> result = new ArrayList<>();
+        for (int i = 0; i < samples; i++) {
+            Map<String, String> sample = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> parameter : space.entrySet()) {
+                sample.put(parameter.getKey(), sample(parameter.getValue(), random));
+            }
+            result.add(sample);
+        }
+        return result;
+    }
+
+    private static String sample(List<String> values, Random random) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        boolean integral = true;
+        for (String value : values) {
+            double parsed = Double.parseDouble(value);
+            min = Math.min(min, parsed);
+            max = Math.max(max, parsed);
+            integral &= !value.contains(".") && !value.contains("e") && !value.contains("E");
+        }
+        if (integral) {
+            return String.valueOf((long) min + (long) Math.floor(random.nextDouble() * ((long) max - (long) min + 1)));
+        }
+        return String.format(Locale.ROOT, "%.3f", min + random.nextDouble() * (max - min));
+    }
+
+    private static Map<String, List<String>> readSpace(Path file) throws IOException {
+        Map<String, List<String>> space = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            int equals = line.indexOf('=');
+            if (equals < 0) throw new IllegalArgumentException("Expected key=v1,v2,... in " + file + ": " + line);
+
+            List<String> values = new ArrayList<>();
+            for (String value : line.substring(equals + 1).split(",")) {
+                Double.parseDouble(value.trim());
+                values.add(value.trim());
+            }
+            space.put(line.substring(0, equals).trim(), values);
+        }
+        return space;
+    }
+
+    private static Properties readProperties(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    private static void writeProperties(Properties properties, Path file, String comment) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            properties.store(out, comment);
+        }
+    }
+
+    // Una còpia instal·lada a robots/ té el mateix nom i pot ocultar els candidats
+    private static void warnIfShadowed(File robocodeHome) {
+        File[] installed = new File(robocodeHome, "robots").listFiles((dir, name) -> name.startsWith("FollowTheLeader"));
+        if (installed != null && installed.length > 0) {
+            System.err.println("Warning: " + installed[0] + " may shadow the tuned candidates; remove it before tuning");
+        }
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static final class Settings {
+        File robocodeHome;
+        Path classes;
+        Path workDir;
+        String[] opponents;
+        int rounds, width, height;
+    }
+
+    private static final class Candidate {
+        final int id;
+        final Map<String, String> override;
+        final Properties properties;
+        BattleRunner.BattleStats stats; // null si les batalles han fallat
+
+        Candidate(int id, Map<String, String> override, Properties properties) {
+            this.id = id;
+            this.override = override;
+            this.properties = properties;
+        }
+
+        // Classes pròpies (i per tant directori de dades propi): cap candidat hereta el que ha après un altre
+        void evaluate(Settings settings) {
+            try {
+                Path robotPath = settings.workDir.resolve("candidate-" + id);
+                copyClasses(settings.classes, robotPath);
+                writeProperties(properties, robotPath.resolve(PACKAGE_DIR).resolve(RESOURCE),
+                        "ParameterTuner candidate " + id);
+
+                List<String> jvmArgs = Collections.singletonList("-DROBOTPATH=" + robotPath.toAbsolutePath());
+                BattleRunner.BattleStats total = new BattleRunner.BattleStats();
+                for (String opponent : settings.opponents) {
+                    total.add(BattleRunner.runParallel(settings.robocodeHome, opponent, settings.rounds, 1,
+                            settings.width, settings.height, jvmArgs));
+                }
+                stats = total;
+                System.out.println("candidate " + id + " " + override + " " + total.summary());
+            } catch (Exception e) {
+                System.err.println("candidate " + id + " " + override + " failed: " + e);
+            }
+        }
+
+        private static void copyClasses(Path from, Path to) throws IOException {
+            try (Stream<Path> paths = Files.walk(from)) {
+                for (Path source : (Iterable<Path>) paths::iterator) {
+                    Path target = to.resolve(from.relativize(source).toString());
+                    if (Files.isDirectory(source)) {
+                        Files.createDirectories(target);
+                    } else if (!source.getFileName().toString().equals(RESOURCE)) {
+                        Files.copy(source, target);
+                    }
+                }
+            }
+        }
+    }
+
+    // Divideix la llista per la meitat fins a un candidat per tasca; cada fulla bloqueja en els seus
+    // processos de batalla, així que el paral·lelisme del pool limita els processos simultanis
+    private static final class Sweep extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient List<Candidate> candidates;
+        private final int from, to;
+        private final transient Settings settings;
+
+        Sweep(List<Candidate> candidates, int from, int to, Settings settings) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.settings = settings;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) candidates.get(from).evaluate(settings);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Sweep(candidates, from, middle, settings), new Sweep(candidates, middle, to, settings));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package josepjiahla;
+
+import robocode.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.zip.InflaterInputStream;
+
+// Torna a injectar els logs d'EventRecorder a FollowTheLeaderRobot sense el motor de Robocode, tan
+// ràpid com es pugui: el robot corre el seu run() de sempre i cada execute() avança un torn del log.
+// Tots dos costats del hot path veuen exactament les mateixes entrades, així que serveix per perfilar
+// i comparar versions. Els logs es descomprimeixen abans de mesurar.
+//
+//   java -cp <robocode.jar>:build/classes:build/tools josepjiahla.ReplayHarness [--warmup 5] [--repeat 20] replay-*.bin
+//
+// L'estat propi (posició, canó, radar, energia) ve del log: les ordres de moviment i de tir no el canvien.
+// Els CustomEvent no s'enregistren, es tornen a avaluar a cada torn com fa el motor.
+public class ReplayHarness {
+    public static void main(String[] args) throws IOException {
+        int warmup = 5;
+        int repeat = 20;
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--warmup")) {
+                warmup = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--repeat")) {
+                repeat = Integer.parseInt(args[++i]);
+            } else {
+                files.add(args[i]);
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("Usage: ReplayHarness [--warmup N] [--repeat N] <log>...");
+        }
+
+        System.out.printf("%-28s %8s %8s %12s %12s%n", "log", "ticks", "events", "best ns/tick", "median ns/tick");
+        for (String file : files) {
+            byte[] log = inflate(Files.readAllBytes(Paths.get(file)));
+            for (int i = 0; i < warmup; i++) {
+                replay(log);
+            }
+
+            double[] nanosPerTick = new double[repeat];
+            ReplayRobot last = null;
+            for (int i = 0; i < repeat; i++) {
+                long start = System.nanoTime();
+                last = replay(log);
+                nanosPerTick[i] = (double) (System.nanoTime() - start) / Math.max(1, last.ticks);
+            }
+            Arrays.sort(nanosPerTick);
+            System.out.printf(Locale.ROOT, "%-28s %8d %8d %12.0f %12.0f%n", Paths.get(file).getFileName(),
+                    last == null ? 0 : last.ticks, last == null ? 0 : last.events,
+                    repeat == 0 ? 0 : nanosPerTick[0], repeat == 0 ? 0 : nanosPerTick[repeat / 2]);
+        }
+    }
+
+    // Cada repetició comença amb l'estat estàtic buit: si no, els perfils i el profiler de l'anterior
+    // farien que el robot no vegi les mateixes entrades que a la batalla
+    static ReplayRobot replay(byte[] log) throws IOException {
+        FollowTheLeaderRobot.resetBattleState();
+        ReplayRobot robot = new ReplayRobot(new DataInputStream(new ByteArrayInputStream(log)));
+        try {
+            robot.run();
+        } catch (EndOfReplay end) {
+            // final del log
+        }
+        return robot;
+    }
+
+    private static byte[] inflate(byte[] compressed) throws IOException {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    // Surt del bucle infinit de run() quan el log s'acaba
+    private static final class EndOfReplay extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        EndOfReplay() {
+            super(null, null, false, false);
+        }
+    }
+
+    static final class ReplayRobot extends HeadlessRobot {
+        private final DataInputStream in;
+        private final List<String> names = new ArrayList<>();
+        private int nextTag;
+        long ticks, events;
+
+        ReplayRobot(DataInputStream in) throws IOException {
+            this.in = in;
+            if (in.readInt() != EventRecorder.MAGIC || in.readByte() != EventRecorder.VERSION) {
+                throw new IOException("Not an event log of this version");
+            }
+            name = in.readUTF();
+            round = in.readInt();
+            width = in.readUnsignedShort();
+            height = in.readUnsignedShort();
+            teammates = new String[in.readUnsignedByte()];
+            for (int i = 0; i < teammates.length; i++) {
+                teammates[i] = in.readUTF();
+            }
+            nextTag = in.readByte();
+            if (nextTag != EventRecorder.TICK) throw new IOException("Event log without an initial tick");
+            readTick();
+        }
+
+        @Override
+        public void execute() {
+            try {
+                if (nextTag == EventRecorder.END) throw new EndOfReplay();
+                if (nextTag == EventRecorder.TICK) readTick();
+                for (Condition condition : conditions) {
+                    if (condition.test()) onCustomEvent(new CustomEvent(condition));
+                }
+                while (nextTag != EventRecorder.TICK && nextTag != EventRecorder.END) {
+                    deliver(nextTag);
+                    nextTag = in.readByte();
+                    events++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Truncated event log", e);
+            }
+        }
+
+        @Override
+        int handshakeNumber() {
+            try {
+                if (nextTag != EventRecorder.RANDOM) return 0;
+                int number = in.readInt();
+                nextTag = in.readByte();
+                return number;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Truncated event log", e);
+            }
+        }
+
+        private void readTick() throws IOException {
+            time = in.readInt();
+            x = in.readFloat();
+            y = in.readFloat();
+            heading = in.readFloat();
+            gunHeading = in.readFloat();
+            radarHeading = in.readFloat();
+            velocity = in.readFloat();
+            energy = in.readFloat();
+            distanceRemaining = in.readFloat();
+            gunHeat = in.readFloat();
+            nextTag = in.readByte();
+            ticks++;
+        }
+
+        private void deliver(int tag) throws IOException {
+            switch (tag) {
+                case EventRecorder.SCAN: {
+                    String enemy = readName();
+                    double bearing = in.readFloat();
+                    double distance = in.readFloat();
+                    double enemyHeading = in.readFloat();
+                    double enemyVelocity = in.readFloat();
+                    double enemyEnergy = in.readFloat();
+                    onScannedRobot(new ScannedRobotEvent(enemy, enemyEnergy, bearing, distance, enemyHeading, enemyVelocity, false));
+                    break;
+                }
+                case EventRecorder.MESSAGE: {
+                    String sender = readName();
+                    byte[] payload = new byte[in.readUnsignedShort()];
+                    in.readFully(payload);
+                    onMessageReceived(new MessageEvent(sender, payload));
+                    break;
+                }
+                case EventRecorder.ROBOT_DEATH:
+                    onRobotDeath(new RobotDeathEvent(readName()));
+                    break;
+                case EventRecorder.HIT_ROBOT:
+                    onHitRobot(new HitRobotEvent(readName(), in.readFloat(), in.readFloat(), in.readBoolean()));
+                    break;
+                case EventRecorder.BULLET_HIT: {
+                    String victim = readName();
+                    double victimEnergy = in.readFloat();
+                    double power = in.readFloat();
+                    onBulletHit(new BulletHitEvent(victim, victimEnergy, new Bullet(gunHeading, x, y, power, name, victim, false, 0)));
+                    break;
+                }
+                case EventRecorder.HIT_BY_BULLET: {
+                    String shooter = readName();
+                    double bearing = in.readFloat();
+                    double power = in.readFloat();
+                    onHitByBullet(new HitByBulletEvent(bearing, new Bullet(0, x, y, power, shooter, name, false, 0)));
+                    break;
+                }
+                case EventRecorder.SKIPPED_TURN:
+                    onSkippedTurn(new SkippedTurnEvent(time));
+                    break;
+                default:
+                    throw new IOException("Unknown event tag " + tag);
+            }
+        }
+
+        private String readName() throws IOException {
+            int index = in.readUnsignedByte();
+            if (index == names.size()) names.add(in.readUTF());
+            return names.get(index);
+        }
+    }
+}